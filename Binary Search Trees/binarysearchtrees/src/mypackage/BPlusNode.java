@@ -0,0 +1,56 @@
+package mypackage;
+
+/**
+ * This class is used to create objects representing 
+ * the nodes of the B+ tree
+ * 
+ * An internal node keeps the separator keys and the references
+ * to its children, while a leaf keeps the keys of the tree and a 
+ * reference to the next leaf. The arrays have one extra position, 
+ * so a node may overflow by one key before it is split.
+ * 
+ * @author Dimitris Petrou
+ *
+ */
+public class BPlusNode {
+	
+	/**
+	 * The keys of the node in ascending order
+	 */
+	public int[] keys;
+	
+	/**
+	 * The number of keys that are currently stored in the node
+	 */
+	public int numberOfKeys;
+	
+	/**
+	 * The references to the children of the node, null for the leaves.
+	 * The child at position i contains the keys that are smaller than keys[i]
+	 * and the child at position i+1 the keys that are greater or equal
+	 */
+	public BPlusNode[] children;
+	
+	/**
+	 * The reference to the next leaf, used for the range scans
+	 */
+	public BPlusNode next;
+	
+	
+	/**
+	 * Class constructor with an int and a boolean argument
+	 * @param maxKeys : the max number of keys to be stored in the node
+	 * @param leaf : true if the node is a leaf
+	 */
+	public BPlusNode(int maxKeys, boolean leaf) {
+		this.keys = new int[maxKeys+1];
+		this.numberOfKeys = 0;
+		this.children = leaf ? null : new BPlusNode[maxKeys+2];
+		this.next = null;
+	}
+	
+	public boolean isLeaf() {
+		return this.children == null;
+	}
+	
+}
@@ -0,0 +1,474 @@
+package mypackage;
+
+/**
+ * Class that implements an in-memory B+ tree for int keys
+ *
+ * Every node holds up to maxKeys keys in a primitive array whose size
+ * is chosen from the size of a cache line, so a whole node is fetched
+ * with one or two memory accesses and the search inside it is a binary
+ * search over contiguous keys instead of one pointer chase per comparison.
+ *
+ * The keys of the tree are stored only in the leaves, which are linked
+ * in ascending order, so an in-range search finds the first leaf and then
+ * walks through the leaves instead of traversing the tree recursively.
+ *
+ * It provides the same methods as the BST_Dyn class and also supports
+ * key deletion
+ *
+ * @author Dimitris Petrou | 2018030070 | ece@tuc
+ *
+ */
+public class BPlusTree implements SearchTree {
+
+	/**
+	 * The root node of the tree
+	 */
+	private BPlusNode root;
+
+	/**
+	 * The max number of keys in each node
+	 */
+	private int maxKeys;
+
+	/**
+	 * The min number of keys in each node except for the root
+	 */
+	private int minKeys;
+
+	/**
+	 * The number of levels of the tree
+	 */
+	private int height;
+
+	/**
+	 * The separator key produced by the last split, moved to the parent node
+	 */
+	private int splitKey;
+
+	/**
+	 * A member variable used to track the number of comparisons performed by each method
+	 */
+	private int comparisons;
+
+	/**
+	 * The default size of a node in bytes, two 64-byte cache lines
+	 */
+	private static final int DEFAULT_NODE_BYTES = 128;
+
+
+	/**
+	 * Class constructor, the nodes fit in two 64-byte cache lines
+	 */
+	public BPlusTree() {
+		this(DEFAULT_NODE_BYTES);
+	}
+
+	/**
+	 * Class constructor with int argument
+	 * @param nodeBytes : the size of the keys of a node in bytes (e.g. 64 or 128)
+	 */
+	public BPlusTree(int nodeBytes) {
+		this.maxKeys = Math.max(nodeBytes/Integer.BYTES, 3);
+		this.minKeys = maxKeys/2;
+		this.root = new BPlusNode(maxKeys, true);
+		this.height = 1;
+		this.comparisons = 0;
+	}
+
+	public int getComparisons() {
+		return this.comparisons;
+	}
+
+	/**
+	 * Method that removes all the keys of the tree
+	 */
+	public void clear() {
+		this.root = new BPlusNode(maxKeys, true);
+		this.height = 1;
+		this.comparisons = 0;
+	}
+
+	public int getHeight() {
+		return this.height;
+	}
+
+
+	//Node methods
+
+	/**
+	 * Method that performs a binary search among the keys of a node
+	 * @param node : the node to search in
+	 * @param key : the key we are searching for
+	 * @return int : the number of keys of the node that are smaller than or equal to the key
+	 */
+	private int upperBound(BPlusNode node, int key) {
+		int lo = 0;
+		int hi = node.numberOfKeys;
+
+		while(lo < hi) {
+			this.comparisons++;
+			int mid = (lo + hi) >>> 1;
+			if(node.keys[mid] <= key) {
+				lo = mid + 1;
+			}else {
+				hi = mid;
+			}
+		}
+		return lo;
+	}
+
+	/**
+	 * Method that performs a binary search among the keys of a node
+	 * @param node : the node to search in
+	 * @param key : the key we are searching for
+	 * @return int : the number of keys of the node that are smaller than the key
+	 */
+	private int lowerBound(BPlusNode node, int key) {
+		int lo = 0;
+		int hi = node.numberOfKeys;
+
+		while(lo < hi) {
+			this.comparisons++;
+			int mid = (lo + hi) >>> 1;
+			if(node.keys[mid] < key) {
+				lo = mid + 1;
+			}else {
+				hi = mid;
+			}
+		}
+		return lo;
+	}
+
+	/**
+	 * Method that moves down the tree to the leaf that should contain the key
+	 * @param key : the key we are searching for
+	 * @return BPlusNode : the leaf
+	 */
+	private BPlusNode findLeaf(int key) {
+		BPlusNode node = root;
+
+		while(!node.isLeaf()) {
+			node = node.children[upperBound(node, key)];
+		}
+		return node;
+	}
+
+	/**
+	 * Method that inserts a key and, for internal nodes, the child on its
+	 * right hand side at a position of a node, shifting the next ones
+	 * @param node : the node
+	 * @param pos : the position of the new key
+	 * @param key : the key to be inserted
+	 * @param child : the new child, not used for the leaves
+	 */
+	private void insertAt(BPlusNode node, int pos, int key, BPlusNode child) {
+		System.arraycopy(node.keys, pos, node.keys, pos+1, node.numberOfKeys-pos);
+		node.keys[pos] = key;
+
+		if(!node.isLeaf()) {
+			System.arraycopy(node.children, pos+1, node.children, pos+2, node.numberOfKeys-pos);
+			node.children[pos+1] = child;
+		}
+		node.numberOfKeys++;
+	}
+
+	/**
+	 * Method that removes the key and, for internal nodes, the child on its
+	 * right hand side at a position of a node, shifting the next ones
+	 * @param node : the node
+	 * @param pos : the position of the key to be removed
+	 */
+	private void removeAt(BPlusNode node, int pos) {
+		System.arraycopy(node.keys, pos+1, node.keys, pos, node.numberOfKeys-pos-1);
+
+		if(!node.isLeaf()) {
+			System.arraycopy(node.children, pos+2, node.children, pos+1, node.numberOfKeys-pos-1);
+			node.children[node.numberOfKeys] = null;
+		}
+		node.numberOfKeys--;
+	}
+
+	/**
+	 * Method that splits an overflowing node in two halves.
+	 *
+	 * For a leaf, the right half is moved to a new leaf which is linked after
+	 * it and its first key is copied up as the separator. For an internal node
+	 * the middle key is moved up as the separator and the keys and children on
+	 * its right are moved to the new node.
+	 *
+	 * The separator is stored in the splitKey member variable.
+	 * @param node : the node to be split
+	 * @return BPlusNode : the new right hand side node
+	 */
+	private BPlusNode split(BPlusNode node) {
+		int mid = node.numberOfKeys/2;
+		BPlusNode sibling = new BPlusNode(maxKeys, node.isLeaf());
+
+		if(node.isLeaf()) {
+			sibling.numberOfKeys = node.numberOfKeys - mid;
+			System.arraycopy(node.keys, mid, sibling.keys, 0, sibling.numberOfKeys);
+			node.numberOfKeys = mid;
+
+			sibling.next = node.next;
+			node.next = sibling;
+			this.splitKey = sibling.keys[0];
+		}else {
+			sibling.numberOfKeys = node.numberOfKeys - mid - 1;
+			System.arraycopy(node.keys, mid+1, sibling.keys, 0, sibling.numberOfKeys);
+			System.arraycopy(node.children, mid+1, sibling.children, 0, sibling.numberOfKeys+1);
+
+			for(int i=mid+1; i<=node.numberOfKeys; i++) {
+				node.children[i] = null;
+			}
+			this.splitKey = node.keys[mid];
+			node.numberOfKeys = mid;
+		}
+		return sibling;
+	}
+
+
+	//Tree methods
+
+	/**
+	 * Method for inserting a key in the tree. Duplicate keys are ignored.
+	 *
+	 * If the root is split, a new root is created with the old root
+	 * and its new sibling as children, so the tree grows by one level.
+	 * @param key : the key to be inserted
+	 */
+	public void insertKey(int key) {
+		this.comparisons = 0;
+
+		BPlusNode sibling = insertRec(root, key);
+
+		if(sibling != null) {
+			BPlusNode newRoot = new BPlusNode(maxKeys, false);
+			newRoot.keys[0] = splitKey;
+			newRoot.children[0] = root;
+			newRoot.children[1] = sibling;
+			newRoot.numberOfKeys = 1;
+
+			root = newRoot;
+			height++;
+		}
+	}
+
+	/**
+	 * Recursive method that inserts a key in the subtree.
+	 *
+	 * In a leaf the key is inserted at its sorted position. In an internal node
+	 * the key is inserted in the appropriate child and if the child was split,
+	 * the separator and the new child are inserted in the node. A node that
+	 * overflows is split in turn.
+	 * @param node : the root of the subtree
+	 * @param key : the key to be inserted
+	 * @return BPlusNode : the new sibling if the node was split, else null
+	 */
+	private BPlusNode insertRec(BPlusNode node, int key) {
+		if(node.isLeaf()) {
+			int pos = lowerBound(node, key);
+
+			this.comparisons++;
+			if(pos < node.numberOfKeys && node.keys[pos] == key) {
+				return null;
+			}
+			insertAt(node, pos, key, null);
+		}else {
+			int pos = upperBound(node, key);
+			BPlusNode sibling = insertRec(node.children[pos], key);
+
+			if(sibling == null) {
+				return null;
+			}
+			insertAt(node, pos, splitKey, sibling);
+		}
+
+		if(node.numberOfKeys > maxKeys) {
+			return split(node);
+		}
+		return null;
+	}
+
+	/**
+	 * Method for deleting a key from the tree if it exists.
+	 *
+	 * If the root is left with no keys and a single child, the child
+	 * becomes the new root and the tree shrinks by one level.
+	 * @param key : the key to be deleted
+	 */
+	public void deleteKey(int key) {
+		this.comparisons = 0;
+
+		deleteRec(root, key);
+
+		if(!root.isLeaf() && root.numberOfKeys == 0) {
+			root = root.children[0];
+			height--;
+		}
+	}
+
+	/**
+	 * Recursive method that deletes a key from the subtree.
+	 *
+	 * In a leaf the key is removed if it exists. In an internal node the key
+	 * is deleted from the appropriate child and if the child is left with
+	 * fewer than minKeys keys it borrows a key from a sibling or it is merged
+	 * with it.
+	 * @param node : the root of the subtree
+	 * @param key : the key to be deleted
+	 * @return true/false if the key was deleted or not
+	 */
+	private boolean deleteRec(BPlusNode node, int key) {
+		if(node.isLeaf()) {
+			int pos = lowerBound(node, key);
+
+			this.comparisons++;
+			if(pos == node.numberOfKeys || node.keys[pos] != key) {
+				return false;
+			}
+			removeAt(node, pos);
+			return true;
+		}
+
+		int pos = upperBound(node, key);
+		if(!deleteRec(node.children[pos], key)) {
+			return false;
+		}
+
+		if(node.children[pos].numberOfKeys < minKeys) {
+			fixUnderflow(node, pos);
+		}
+		return true;
+	}
+
+	/**
+	 * Method that restores the min number of keys of a child after a deletion.
+	 *
+	 * If the left or the right sibling has keys to spare, one key moves through
+	 * the parent (or directly, for the leaves) to the child. Else the child is
+	 * merged with one of its siblings.
+	 * @param parent : the parent of the child
+	 * @param pos : the position of the child in the parent
+	 */
+	private void fixUnderflow(BPlusNode parent, int pos) {
+		BPlusNode child = parent.children[pos];
+		BPlusNode left = pos > 0 ? parent.children[pos-1] : null;
+		BPlusNode right = pos < parent.numberOfKeys ? parent.children[pos+1] : null;
+
+		if(left != null && left.numberOfKeys > minKeys) {
+			if(child.isLeaf()) {
+				insertAt(child, 0, left.keys[left.numberOfKeys-1], null);
+				left.numberOfKeys--;
+				parent.keys[pos-1] = child.keys[0];
+			}else {
+				System.arraycopy(child.keys, 0, child.keys, 1, child.numberOfKeys);
+				System.arraycopy(child.children, 0, child.children, 1, child.numberOfKeys+1);
+				child.keys[0] = parent.keys[pos-1];
+				child.children[0] = left.children[left.numberOfKeys];
+				child.numberOfKeys++;
+
+				parent.keys[pos-1] = left.keys[left.numberOfKeys-1];
+				left.children[left.numberOfKeys] = null;
+				left.numberOfKeys--;
+			}
+		}else if(right != null && right.numberOfKeys > minKeys) {
+			if(child.isLeaf()) {
+				child.keys[child.numberOfKeys++] = right.keys[0];
+				removeAt(right, 0);
+				parent.keys[pos] = right.keys[0];
+			}else {
+				child.keys[child.numberOfKeys] = parent.keys[pos];
+				child.children[child.numberOfKeys+1] = right.children[0];
+				child.numberOfKeys++;
+
+				parent.keys[pos] = right.keys[0];
+				System.arraycopy(right.keys, 1, right.keys, 0, right.numberOfKeys-1);
+				System.arraycopy(right.children, 1, right.children, 0, right.numberOfKeys);
+				right.children[right.numberOfKeys] = null;
+				right.numberOfKeys--;
+			}
+		}else if(left != null) {
+			merge(parent, pos-1);
+		}else {
+			merge(parent, pos);
+		}
+	}
+
+	/**
+	 * Method that merges the child at a position of a node with the child
+	 * on its right hand side. For internal nodes the separator of the two
+	 * children moves down to the merged node. The separator and the right
+	 * child are removed from the parent.
+	 * @param parent : the parent of the children
+	 * @param pos : the position of the left child
+	 */
+	private void merge(BPlusNode parent, int pos) {
+		BPlusNode left = parent.children[pos];
+		BPlusNode right = parent.children[pos+1];
+
+		if(left.isLeaf()) {
+			System.arraycopy(right.keys, 0, left.keys, left.numberOfKeys, right.numberOfKeys);
+			left.numberOfKeys += right.numberOfKeys;
+			left.next = right.next;
+		}else {
+			left.keys[left.numberOfKeys] = parent.keys[pos];
+			System.arraycopy(right.keys, 0, left.keys, left.numberOfKeys+1, right.numberOfKeys);
+			System.arraycopy(right.children, 0, left.children, left.numberOfKeys+1, right.numberOfKeys+1);
+			left.numberOfKeys += right.numberOfKeys+1;
+		}
+
+		removeAt(parent, pos);
+	}
+
+	public boolean searchKey(int key) {
+		this.comparisons = 0;
+
+		BPlusNode leaf = findLeaf(key);
+		int pos = lowerBound(leaf, key);
+
+		this.comparisons++;
+		return pos < leaf.numberOfKeys && leaf.keys[pos] == key;
+	}
+
+	/**
+	 * Method that visits the keys of the tree within a specific range.
+	 * It finds the leaf of the lower bound and then it walks through the
+	 * linked leaves until the upper bound is exceeded
+	 * @param k1 : the lower bound
+	 * @param k2 : the upper bound
+	 */
+	public void inrange(int k1, int k2) {
+		this.comparisons = 0;
+
+		BPlusNode leaf = findLeaf(k1);
+		int pos = lowerBound(leaf, k1);
+
+		while(leaf != null) {
+			for(; pos < leaf.numberOfKeys; pos++) {
+				this.comparisons++;
+				if(leaf.keys[pos] > k2) {
+					return;
+				}
+				//System.out.print(leaf.keys[pos] + " ");
+			}
+			leaf = leaf.next;
+			pos = 0;
+		}
+	}
+
+	public void inorder() {
+		BPlusNode leaf = root;
+
+		while(!leaf.isLeaf()) {
+			leaf = leaf.children[0];
+		}
+
+		while(leaf != null) {
+			for(int i=0; i<leaf.numberOfKeys; i++) {
+				System.out.print(leaf.keys[i]+"   ");
+			}
+			leaf = leaf.next;
+		}
+	}
+
+}
@@ -0,0 +1,288 @@
+package mypackage;
+
+/**
+ * Class that implements a self-balancing BST (AVL tree)
+ * with dynamic memory allocation
+ *
+ * Every node keeps the height of its subtree. After each
+ * insertion or deletion the nodes on the path back to the root
+ * are rebalanced using rotations, so the height of the tree
+ * stays O(log n) even when the keys arrive sorted.
+ *
+ * It provides the same methods as the BST_Dyn class for
+ * key insertion, key search, traversal and inrange search
+ * and also supports key deletion
+ *
+ * @author Dimitris Petrou | 2018030070 | ece@tuc
+ *
+ */
+public class BST_AVL implements SearchTree {
+
+	/**
+	 * The root node of the tree
+	 */
+	private Node root;
+
+	/**
+	 * A member variable used to track the number of comparisons performed by each method
+	 */
+	private int comparisons;
+
+
+	/**
+	 * Class constructor
+	 */
+	public BST_AVL() {
+		this.root = null;
+		this.comparisons = 0;
+	}
+
+	public int getComparisons() {
+		return this.comparisons;
+	}
+
+	/**
+	 * Method that removes all the keys of the tree
+	 */
+	public void clear() {
+		this.root = null;
+		this.comparisons = 0;
+	}
+
+	/**
+	 * Method that returns the height of the tree
+	 * @return int : the height of the root node, 0 if the tree is empty
+	 */
+	public int getHeight() {
+		return height(root);
+	}
+
+
+	//Balancing methods
+
+	private int height(Node node) {
+		if(node == null) {
+			return 0;
+		}
+		return node.getHeight();
+	}
+
+	private void updateHeight(Node node) {
+		node.setHeight(1 + Math.max(height(node.getLeft()), height(node.getRight())));
+	}
+
+	private int balanceFactor(Node node) {
+		return height(node.getLeft()) - height(node.getRight());
+	}
+
+	/**
+	 * Method that rotates the subtree rooted at node to the right.
+	 * The left child of the node becomes the new root of the subtree
+	 * @param node : the root of the subtree
+	 * @return Node : the new root of the subtree
+	 */
+	private Node rotateRight(Node node) {
+		Node pivot = node.getLeft();
+		node.setLeft(pivot.getRight());
+		pivot.setRight(node);
+
+		updateHeight(node);
+		updateHeight(pivot);
+		return pivot;
+	}
+
+	/**
+	 * Method that rotates the subtree rooted at node to the left.
+	 * The right child of the node becomes the new root of the subtree
+	 * @param node : the root of the subtree
+	 * @return Node : the new root of the subtree
+	 */
+	private Node rotateLeft(Node node) {
+		Node pivot = node.getRight();
+		node.setRight(pivot.getLeft());
+		pivot.setLeft(node);
+
+		updateHeight(node);
+		updateHeight(pivot);
+		return pivot;
+	}
+
+	/**
+	 * Method that restores the AVL property at a node after one of its
+	 * subtrees has changed height by one.
+	 *
+	 * If the left subtree is two levels higher a right rotation is performed
+	 * (preceded by a left rotation of the left child for the left-right case).
+	 * The right hand side is handled symmetrically.
+	 *
+	 * @param node : the root of the subtree to be rebalanced
+	 * @return Node : the new root of the subtree
+	 */
+	private Node rebalance(Node node) {
+		updateHeight(node);
+		int balance = balanceFactor(node);
+
+		if(balance > 1) {
+			if(balanceFactor(node.getLeft()) < 0) {
+				node.setLeft(rotateLeft(node.getLeft()));
+			}
+			return rotateRight(node);
+		}
+
+		if(balance < -1) {
+			if(balanceFactor(node.getRight()) > 0) {
+				node.setRight(rotateRight(node.getRight()));
+			}
+			return rotateLeft(node);
+		}
+
+		return node;
+	}
+
+
+	//Tree methods
+
+	public void insertKey(int key) {
+		this.comparisons = 0;
+		root = insertRec(root, key);
+	}
+
+	/**
+	 * Recursive method that inserts a key in the subtree like in a plain BST
+	 * and rebalances every node on the way back to the root.
+	 * Duplicate keys are ignored.
+	 * @param node : the root of the subtree
+	 * @param key : the key to be inserted
+	 * @return Node : the new root of the subtree
+	 */
+	private Node insertRec(Node node, int key) {
+		if(node == null) {
+			return new Node(key);
+		}
+
+		if(key < node.getKey()) {
+			this.comparisons++;
+			node.setLeft(insertRec(node.getLeft(), key));
+		}else if(key > node.getKey()) {
+			this.comparisons+=2;
+			node.setRight(insertRec(node.getRight(), key));
+		}else {
+			this.comparisons+=2;
+			return node;
+		}
+
+		return rebalance(node);
+	}
+
+	/**
+	 * Method that deletes a key from the tree if it exists
+	 * @param key : the key to be deleted
+	 */
+	public void deleteKey(int key) {
+		this.comparisons = 0;
+		root = deleteRec(root, key);
+	}
+
+	/**
+	 * Recursive method that deletes a key from the subtree.
+	 *
+	 * If the node to be deleted has at most one child it is replaced by it.
+	 * Else its key is replaced by the key of its inorder successor, which is
+	 * then deleted from the right subtree.
+	 *
+	 * Every node on the way back to the root is rebalanced.
+	 * @param node : the root of the subtree
+	 * @param key : the key to be deleted
+	 * @return Node : the new root of the subtree
+	 */
+	private Node deleteRec(Node node, int key) {
+		if(node == null) {
+			return null;
+		}
+
+		if(key < node.getKey()) {
+			this.comparisons++;
+			node.setLeft(deleteRec(node.getLeft(), key));
+		}else if(key > node.getKey()) {
+			this.comparisons+=2;
+			node.setRight(deleteRec(node.getRight(), key));
+		}else {
+			this.comparisons+=2;
+
+			if(node.getLeft() == null) {
+				return node.getRight();
+			}
+			if(node.getRight() == null) {
+				return node.getLeft();
+			}
+
+			Node successor = node.getRight();
+			while(successor.getLeft() != null) {
+				successor = successor.getLeft();
+			}
+			node.setKey(successor.getKey());
+			node.setRight(deleteRec(node.getRight(), successor.getKey()));
+		}
+
+		return rebalance(node);
+	}
+
+	public void inorder() {
+		inorderRec(root);
+	}
+
+	private void inorderRec(Node node) {
+		if(node != null) {
+			inorderRec(node.getLeft());
+			System.out.print(node.getKey()+"   ");
+			inorderRec(node.getRight());
+		}
+	}
+
+	public boolean searchKey(int searchKey) {
+
+		Node current = root;
+		this.comparisons = 0;
+
+		while(current!=null) {
+			if(current.getKey()==searchKey) {
+				this.comparisons++;
+				return true;
+			}else if(current.getKey()>searchKey) {
+				current = current.getLeft();
+				this.comparisons++;
+			}else {
+				current = current.getRight();
+				this.comparisons++;
+			}
+		}
+		return false;
+	}
+
+	public void inrange(int k1, int k2) {
+		this.comparisons = 0;
+		inrangeRec(root, k1, k2);
+	}
+
+	private void inrangeRec(Node node, int k1, int k2) {
+		if(node == null) {
+			return;
+		}
+
+		if(k1 < node.getKey()) {
+			this.comparisons++;
+			inrangeRec(node.getLeft(), k1, k2);
+		}
+
+		if(k1 <= node.getKey() && k2 >= node.getKey()) {
+			this.comparisons+=2;
+			//System.out.print(node.getKey() + " ");
+		}
+
+		if(k2 > node.getKey()) {
+			this.comparisons++;
+			inrangeRec(node.getRight(), k1, k2);
+		}
+	}
+
+}
@@ -1,26 +1,41 @@
 package mypackage;
 import java.io.File;
 import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
 import java.util.Vector;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 /**
  * This class implements a Binary Search Tree
  * using static memory allocation before its construction
  * 
  * It provides the fundamental methods of a BST
- * for key insertion, key search, traversal, inrange search 
+ * for key insertion, key deletion, key search, traversal, inrange search 
  * 
  * It uses three static arrays for storing the information 
  * of each node and the in-between connections
  * 
  * For the insertion of new keys in the tree it uses
- * an imaginary stack to mark the availability of the empty 
- * array fields 
+ * an availability stack of the empty array fields, linked 
+ * through the left array. Deleted nodes are pushed back in the 
+ * stack, so their fields are reused by the next insertions. 
+ * When all the fields are used the arrays grow geometrically, 
+ * so the insertions cost amortized O(1) extra time and the tree 
+ * never becomes full
  * 
  * @author Dimitris Petrou | 2018030070 | ece@tuc
  *
  */
 @SuppressWarnings("all")
-public class BST_Arr {
+public class BST_Arr implements SearchTree, RangeSearch {
 	
 	/**
 	 * The array for storing the keys of the nodes
@@ -40,6 +55,13 @@ public class BST_Arr {
 	 */
 	private int[] right;
 	
+	/**
+	 * The array for storing the number of nodes of the subtree rooted at each node,
+	 * 0 for the fields that are not nodes
+	 * 
+	 */
+	private int[] size;
+	
 	/**
 	 * The single dimensional sorted array used for the testing 
 	 * 
@@ -59,47 +81,103 @@ public class BST_Arr {
 	
 	/**
 	 * A member variable which keeps track of the next available position in the arrays
+	 * (the top of the availability stack)
 	 */
 	private int avail;
 	
 	/**
 	 * A member variable corresponding to the size of the tree to be constructed
+	 * (the current capacity of the arrays)
 	 */
 	private int treeSize;
 	
+	/**
+	 * A member variable corresponding to the number of nodes stored in the tree
+	 */
+	private int numberOfNodes;
+	
 	/**
 	 * A conventional null value that equals to -1
 	 */
 	private static final int NULL = -1;
 	
+	/**
+	 * The capacity of the arrays when no expected size is given
+	 */
+	private static final int DEFAULT_CAPACITY = 16;
+	
+	/**
+	 * The size of the key ranges that are built sequentially by the parallel bulk load
+	 */
+	private static final int PARALLEL_THRESHOLD = 1 << 13;
+	
+	/**
+	 * The number of searches advanced together by the batched search
+	 */
+	private static final int SEARCH_GROUP = 16;
+	
+	/**
+	 * The first int of an image of the tree, "BSTA" in ASCII. Read in the
+	 * wrong byte order it does not match, so the order of the image is found from it
+	 */
+	static final int IMAGE_MAGIC = 0x42535441;
+	
+	/**
+	 * The version of the format of the images
+	 */
+	static final int IMAGE_VERSION = 1;
+	
+	/**
+	 * The number of ints of the header of an image: magic, version,
+	 * capacity, number of nodes, root, top of the availability stack
+	 * and two unused ints
+	 */
+	static final int IMAGE_HEADER = 8;
+	
 	
 	/**
 	 * A member variable used to track the number of comparisons performed by each BST method
 	 * 
 	 */
 	private int comparisons;
+	
+	/**
+	 * The recorder of the operations, OperationRecorder.NONE if they are not recorded
+	 */
+	private OperationRecorder recorder;
 		
 	
+	/**
+	 * Class constructor without arguments, the arrays 
+	 * start with the default capacity and grow when needed
+	 */
+	public BST_Arr() {
+		this(DEFAULT_CAPACITY);
+	}
+	
 	/**
 	 * Class Construcot with int argument
-	 * @param ts : the numbers of nodes of the tree
+	 * @param ts : the expected number of nodes of the tree, used as the initial capacity
 	 */
 	public BST_Arr(int ts) {
-		this.treeSize = ts;
+		this.treeSize = Math.max(ts, 1);
 		
 		this.info = new int[treeSize];
 		this.left = new int[treeSize];
 		this.right = new int[treeSize];
+		this.size = new int[treeSize];
 		
-		this.sortedArray = new int[treeSize];
+		this.sortedArray = new int[0];
 		this.iterator = 0;
 		
 		this.root=NULL;
 		this.avail=-1;
+		this.numberOfNodes = 0;
 		this.comparisons = 0;
+		this.recorder = OperationRecorder.NONE;
 		
-		setupStack();	
-		setupTable();
+		setupTable(0);
+		setupStack(0);
 	}
 	
 	
@@ -107,24 +185,67 @@ public class BST_Arr {
 	
 	
 	/**
-	 * Method, initializing the first available position in the arrays to be
-	 * the 0
+	 * Method that pushes the fields of the arrays starting from a position 
+	 * in the availability stack. Each free field points to the next one 
+	 * through the left array and the last one points to the previous top 
+	 * of the stack. The first available position becomes the from position
+	 * @param from : the first index to be pushed in the stack
 	 */
-	public void setupStack() {		
-		setNextAvail(0);
+	public void setupStack(int from) {
+		for(int i=from; i<treeSize-1; i++) {
+			setLeftChild(i,i+1);
+		}
+		setLeftChild(treeSize-1,getNextAvail());
+		setNextAvail(from);
 	}
 	
 	/**
 	 * Method, initializing the fields of the arrays to be NULL
+	 * @param from : the first index to be initialized
 	 */
-	public void setupTable() {
-		for(int i=0; i<treeSize; i++) {
+	public void setupTable(int from) {
+		for(int i=from; i<treeSize; i++) {
 			setInfo(i,NULL);
 			setLeftChild(i,NULL);
 			setRightChild(i,NULL);
+			this.size[i] = 0;
 		}
 	}
 	
+	/**
+	 * Method that doubles the capacity of the arrays, keeping
+	 * the nodes at the same positions. The new fields are 
+	 * initialized to be NULL and pushed in the availability stack
+	 */
+	private void grow() {
+		int oldSize = this.treeSize;
+		this.treeSize = oldSize*2;
+		
+		this.info = Arrays.copyOf(info, treeSize);
+		this.left = Arrays.copyOf(left, treeSize);
+		this.right = Arrays.copyOf(right, treeSize);
+		this.size = Arrays.copyOf(size, treeSize);
+		
+		setupTable(oldSize);
+		setupStack(oldSize);
+	}
+	
+	/**
+	 * Method that returns the number of nodes stored in the tree
+	 * @return int the number of nodes
+	 */
+	public int getNumberOfNodes() {
+		return this.numberOfNodes;
+	}
+	
+	/**
+	 * Method that returns the current capacity of the arrays
+	 * @return int the capacity
+	 */
+	public int getCapacity() {
+		return this.treeSize;
+	}
+	
 	/**
 	 * ethod that returns the number of comparisons.
 	 * It is used after each BST-type method call
@@ -134,21 +255,56 @@ public class BST_Arr {
 		return this.comparisons;
 	}
 	
+	/**
+	 * Method that removes all the keys of the tree, the fields
+	 * are initialized to be NULL and pushed in the availability stack
+	 */
+	public void clear() {
+		prepareBulkLoad(0);
+		this.root = NULL;
+	}
+	
+	public OperationRecorder getRecorder() {
+		return this.recorder;
+	}
+	
+	/**
+	 * Method that sets the recorder of the operations of the tree.
+	 * The comparisons of the last operation are still kept for getComparisons(),
+	 * the recorder also works when the tree is used by many threads
+	 * @param recorder : the recorder, OperationRecorder.NONE to stop recording
+	 */
+	public void setRecorder(OperationRecorder recorder) {
+		this.recorder = recorder;
+	}
+	
 	/**
 	 * Method that updates the availability of the cells of the array
 	 * It "eats" one cell and it returns its pos. Then it updates the avail
-	 * variable to show to the next available cell 
+	 * variable to show to the next available cell, which is stored in 
+	 * the left array of the eaten cell.
+	 * If all the cells are used the arrays grow before
 	 * @return int the pos of the last available cell
 	 */
 	public int useAvailCell() {	
-		if(this.avail == this.treeSize) {
-			this.avail=NULL;
-			return NULL;
-		}else {
-			int curAvail = avail;
-			avail++;
-			return curAvail;
-		}	
+		if(this.avail == NULL) {
+			grow();
+		}
+		int curAvail = avail;
+		avail = getLeftChild(curAvail);
+		setLeftChild(curAvail,NULL);
+		return curAvail;
+	}
+	
+	/**
+	 * Method that returns a cell of the arrays in the availability stack
+	 * after its node was deleted. The cell becomes the top of the stack
+	 * @param pos : the pos of the cell to be freed
+	 */
+	public void freeCell(int pos) {
+		storeNode(pos,NULL,avail,NULL);
+		this.size[pos] = 0;
+		avail = pos;
 	}
 	
 	public int getNextAvail() {
@@ -186,18 +342,14 @@ public class BST_Arr {
 	}
 	
 	/**
-	 * Method that checks if a cell at a specific index in the arrays
-	 * is a valid tree node
+	 * Method that checks if an index refers to a cell of the arrays,
+	 * as the references to the children do. The key stored in the cell
+	 * is not checked, any int including NULL (-1) may be a key
 	 * @param i : The index to check if it is a node
 	 * @return boolean: true/false
 	 */
 	public boolean isNode(int i) {
-		try {
-			if(getInfo(i)!=NULL) 
-				return true;
-		}catch(Exception e) {}
-		
-		return false;
+		return i != NULL && i >= 0 && i < treeSize;
 	}
 
 	public void setInfo(int i, int info) {
@@ -257,7 +409,7 @@ public class BST_Arr {
 	 * @return true/false
 	 */
 	public boolean hasRightChild(int p) {
-		if(right[p]!=NULL && isNode(p)) {
+		if(right[p]!=NULL) {
 			return true;
 		}
 		return false;
@@ -271,8 +423,7 @@ public class BST_Arr {
 	 * Method for inserting a key in the static BST
 	 * 
 	 * First it requests a position to store the new node
-	 * If the useAvailCell() method returns NULL then the tree is full
-	 * and the insertion process ends there.
+	 * (the arrays grow if there is no available cell).
 	 * 
 	 * Then it checks if the Tree has a root, if not it inserts the 
 	 * new key as root node.
@@ -287,25 +438,29 @@ public class BST_Arr {
 	 * @param key The key to be inserted
 	 */
 	public void insertKey(int key) {
+		long startTime = recorder.startTime();
 		int pos = useAvailCell();
-		this.comparisons=0;
-		
-		if(pos==NULL) {
-			System.out.println("--> Tree Full!");
-			return;
-		}
+		int comparisons = 0;
+		int visits = 0;
+		this.numberOfNodes++;
 		
 		if(this.root == NULL) {
 			this.root = pos;
 			storeNode(pos,key,NULL,NULL);
+			this.size[pos] = 1;
+			this.comparisons = 0;
+			recorder.record(OperationRecorder.INSERT, 0, 0, startTime);
 			return;
 		}
 		
 		int x = this.root;
+		this.size[pos] = 1;
 		
 		while(true) {
+			visits++;
+			this.size[x]++;
 			if(key < getInfo(x)) {
-				this.comparisons++;
+				comparisons++;
 				
 				if(hasLeftChild(x)) {
 					x = getLeftChild(x);
@@ -317,7 +472,7 @@ public class BST_Arr {
 				}
 				
 			}else {
-				this.comparisons++;
+				comparisons++;
 				
 				if(hasRightChild(x)) {
 					x = getRightChild(x);
@@ -329,26 +484,339 @@ public class BST_Arr {
 				}
 			}
 		}
+		
+		this.comparisons = comparisons;
+		recorder.record(OperationRecorder.INSERT, comparisons, visits, startTime);
 	}
 	
 	
-	public void inorder() {
-		inorderRec(root);
+	/**
+	 * Method for deleting a key from the static BST
+	 * 
+	 * Iteratively we move through the nodes of the tree
+	 * according to the value of the key, keeping track of the 
+	 * parent of the current node. If the key is not found the 
+	 * process ends there.
+	 * 
+	 * If the node has two children, its key is replaced by the key
+	 * of its inorder successor (the leftmost node of its right subtree)
+	 * and the successor is removed instead. Else the node is replaced
+	 * by its only child (or NULL) in its parent.
+	 * 
+	 * The cell of the removed node is pushed back in the availability stack.
+	 * 
+	 * @param key The key to be deleted
+	 */
+	public void deleteKey(int key) {
+		long startTime = recorder.startTime();
+		int comparisons = 0;
+		int visits = 0;
+		
+		int parent = NULL;
+		int x = this.root;
+		
+		while(x!=NULL && getInfo(x)!=key) {
+			comparisons+=2;
+			visits++;
+			parent = x;
+			if(key < getInfo(x)) {
+				x = getLeftChild(x);
+			}else {
+				x = getRightChild(x);
+			}
+		}
+		
+		if(x==NULL) {
+			this.comparisons = comparisons;
+			recorder.record(OperationRecorder.DELETE, comparisons, visits, startTime);
+			return;
+		}
+		comparisons++;
+		visits++;
+		
+		// Every node on the path to the removed node loses one key from its subtree
+		for(int n = this.root; n != x; n = (key < info[n]) ? left[n] : right[n]) {
+			this.size[n]--;
+		}
+		this.size[x]--;
+		
+		if(hasLeftChild(x) && hasRightChild(x)) {
+			int successorParent = x;
+			int successor = getRightChild(x);
+			visits++;
+			
+			while(hasLeftChild(successor)) {
+				this.size[successor]--;
+				successorParent = successor;
+				successor = getLeftChild(successor);
+				visits++;
+			}
+			
+			setInfo(x,getInfo(successor));
+			
+			if(successorParent == x) {
+				setRightChild(successorParent,getRightChild(successor));
+			}else {
+				setLeftChild(successorParent,getRightChild(successor));
+			}
+			freeCell(successor);
+		}else {
+			int child = hasLeftChild(x) ? getLeftChild(x) : getRightChild(x);
+			
+			if(parent == NULL) {
+				this.root = child;
+			}else if(getLeftChild(parent) == x) {
+				setLeftChild(parent,child);
+			}else {
+				setRightChild(parent,child);
+			}
+			freeCell(x);
+		}
+		
+		this.numberOfNodes--;
+		this.comparisons = comparisons;
+		recorder.record(OperationRecorder.DELETE, comparisons, visits, startTime);
 	}
 	
 	/**
-	 * Recursive method to traverse the tree
-	 * in an inorder way. We first recur down the left
-	 * hand side and as we return we print the keys.
-	 * Then we print the keys and we recur down the right
-	 * hand side.
-	 * @param rt The root of the tree
+	 * Method that replaces the contents of the tree with a perfectly
+	 * balanced tree built from keys given in ascending order.
+	 * 
+	 * The key at position i of the sorted array is stored at the 
+	 * field i of the arrays, so only the children references have to 
+	 * be computed and every key is visited once: the construction takes 
+	 * O(n) time. The remaining fields are pushed in the availability stack.
+	 * 
+	 * Like insertKey, the repeated keys are all stored, but the middle split
+	 * may put a key equal to a node in its left subtree, so the range walks
+	 * look for equal keys on both sides.
+	 * 
+	 * @param sortedKeys : the keys in ascending order, they may repeat
 	 */
-	private void inorderRec(int rt) {
-		if(rt!=NULL) {
-			inorderRec(getLeftChild(rt));
-			System.out.print(getInfo(rt)+"   ");
-			inorderRec(getRightChild(rt));
+	public void bulkLoad(int[] sortedKeys) {
+		prepareBulkLoad(sortedKeys.length);
+		this.root = bulkLoadRec(sortedKeys, 0, sortedKeys.length-1);
+	}
+	
+	/**
+	 * Method that constructs the same balanced tree as the bulkLoad method
+	 * using a pool of threads.
+	 * 
+	 * Since the key at position i of the sorted array is stored at the field i 
+	 * of the arrays, the subtrees of a node fill disjoint ranges of the arrays
+	 * and they can be built concurrently without any synchronization. The ranges
+	 * are split recursively in fork/join tasks until they become small enough 
+	 * to be built sequentially.
+	 * 
+	 * @param sortedKeys : the keys in ascending order
+	 * @param threads : the number of threads to be used
+	 */
+	public void parallelBulkLoad(int[] sortedKeys, int threads) {
+		int n = sortedKeys.length;
+		prepareBulkLoad(n);
+		
+		ForkJoinPool pool = new ForkJoinPool(threads);
+		try {
+			pool.invoke(new BulkLoadTask(sortedKeys, 0, n-1));
+		}finally {
+			pool.shutdown();
+		}
+		
+		this.root = (n > 0) ? (n-1) >>> 1 : NULL;
+	}
+	
+	/**
+	 * Method that prepares the arrays for a bulk load of n keys.
+	 * The arrays are reallocated if they can not hold all the keys and the 
+	 * fields after the first n are pushed in the availability stack
+	 * @param n : the number of keys to be loaded
+	 */
+	private void prepareBulkLoad(int n) {
+		this.comparisons = 0;
+		
+		if(n > treeSize) {
+			this.treeSize = n;
+			this.info = new int[treeSize];
+			this.left = new int[treeSize];
+			this.right = new int[treeSize];
+			this.size = new int[treeSize];
+		}
+		this.numberOfNodes = n;
+		
+		setupTable(n);
+		setNextAvail(NULL);
+		if(n < treeSize) {
+			setupStack(n);
+		}
+	}
+	
+	/**
+	 * Recursive method that builds a balanced subtree from a range of 
+	 * the sorted keys. The middle key becomes the root of the subtree and
+	 * the two halves of the range form its left and right subtrees
+	 * @param sortedKeys : the keys in ascending order
+	 * @param lo : the first position of the range
+	 * @param hi : the last position of the range
+	 * @return int : the pos of the root of the subtree
+	 */
+	private int bulkLoadRec(int[] sortedKeys, int lo, int hi) {
+		if(lo > hi) {
+			return NULL;
+		}
+		
+		int mid = (lo + hi) >>> 1;
+		storeNode(mid, sortedKeys[mid], bulkLoadRec(sortedKeys, lo, mid-1), bulkLoadRec(sortedKeys, mid+1, hi));
+		this.size[mid] = hi-lo+1;
+		return mid;
+	}
+	
+	/**
+	 * A fork/join task that builds the balanced subtree of a range of the sorted keys.
+	 * The root of the range is the middle key, so the references to the roots of 
+	 * the two halves are known before they are built and the halves are forked 
+	 * as two new tasks
+	 */
+	private class BulkLoadTask extends RecursiveAction {
+		
+		private static final long serialVersionUID = 1L;
+		
+		private final int[] sortedKeys;
+		private final int lo;
+		private final int hi;
+		
+		BulkLoadTask(int[] sortedKeys, int lo, int hi) {
+			this.sortedKeys = sortedKeys;
+			this.lo = lo;
+			this.hi = hi;
+		}
+		
+		@Override
+		protected void compute() {
+			if(hi - lo < PARALLEL_THRESHOLD) {
+				bulkLoadRec(sortedKeys, lo, hi);
+				return;
+			}
+			
+			int mid = (lo + hi) >>> 1;
+			int leftRoot = (lo <= mid-1) ? (lo + mid-1) >>> 1 : NULL;
+			int rightRoot = (mid+1 <= hi) ? (mid+1 + hi) >>> 1 : NULL;
+			storeNode(mid, sortedKeys[mid], leftRoot, rightRoot);
+			size[mid] = hi-lo+1;
+			
+			invokeAll(new BulkLoadTask(sortedKeys, lo, mid-1), new BulkLoadTask(sortedKeys, mid+1, hi));
+		}
+	}
+	
+	
+	//Image methods
+	
+	
+	/**
+	 * Method that saves the tree in an image file, which is a header
+	 * followed by the info, left, right and size arrays, all of them
+	 * with the capacity of the tree. The ints are written in the native
+	 * byte order through a mapping of the file, and the image can be
+	 * opened as a BST_Arr with the open method or searched in place
+	 * with the BST_Mapped class
+	 * @param path : the path to the image file, replaced if it exists
+	 * @throws IOException if the file cannot be written
+	 */
+	public void save(String path) throws IOException {
+		long arrayBytes = 4L*treeSize;
+		if(arrayBytes > Integer.MAX_VALUE) {
+			throw new IllegalStateException("The arrays are too large for a single mapping each");
+		}
+		
+		try(RandomAccessFile raf = new RandomAccessFile(path, "rw")) {
+			raf.setLength(0);
+			raf.setLength(4L*IMAGE_HEADER + 4*arrayBytes);
+			FileChannel channel = raf.getChannel();
+			
+			MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_WRITE, 0, 4L*IMAGE_HEADER);
+			header.order(ByteOrder.nativeOrder()).asIntBuffer()
+				.put(new int[] {IMAGE_MAGIC, IMAGE_VERSION, treeSize, numberOfNodes, root, avail, 0, 0});
+			header.force();
+			
+			int[][] arrays = {info, left, right, size};
+			for(int a=0; a<arrays.length; a++) {
+				MappedByteBuffer region = channel.map(FileChannel.MapMode.READ_WRITE, 4L*IMAGE_HEADER + a*arrayBytes, arrayBytes);
+				region.order(ByteOrder.nativeOrder()).asIntBuffer().put(arrays[a], 0, treeSize);
+				region.force();
+			}
+		}
+	}
+	
+	/**
+	 * Method that opens an image saved by the save method as a new tree.
+	 * The arrays are copied from a mapping of the file, so the tree can be
+	 * modified like any other. A restart that only searches the tree can
+	 * use the BST_Mapped class instead, which does not copy anything
+	 * @param path : the path to the image file
+	 * @return BST_Arr : the tree of the image
+	 * @throws IOException if the file cannot be read or it is not an image
+	 */
+	public static BST_Arr open(String path) throws IOException {
+		try(RandomAccessFile raf = new RandomAccessFile(path, "r")) {
+			IntBuffer[] mapped = mapImage(raf.getChannel(), FileChannel.MapMode.READ_ONLY);
+			IntBuffer header = mapped[0];
+			
+			BST_Arr tree = new BST_Arr(header.get(2));
+			tree.numberOfNodes = header.get(3);
+			tree.root = header.get(4);
+			tree.avail = header.get(5);
+			
+			int[][] arrays = {tree.info, tree.left, tree.right, tree.size};
+			for(int a=0; a<arrays.length; a++) {
+				mapped[a+1].get(arrays[a], 0, tree.treeSize);
+			}
+			return tree;
+		}
+	}
+	
+	/**
+	 * Method that maps an image file and checks its header.
+	 * @param channel : the channel of the image file
+	 * @param mode : the mode of the mapping
+	 * @return IntBuffer[] : the header followed by the info, left, right and size arrays
+	 * @throws IOException if the file cannot be mapped or it is not an image
+	 */
+	static IntBuffer[] mapImage(FileChannel channel, FileChannel.MapMode mode) throws IOException {
+		if(channel.size() < 4L*IMAGE_HEADER) {
+			throw new IOException("The file is too short to be a tree image");
+		}
+		
+		ByteOrder order = ByteOrder.BIG_ENDIAN;
+		MappedByteBuffer headerBytes = channel.map(mode, 0, 4L*IMAGE_HEADER);
+		if(headerBytes.order(order).getInt(0) != IMAGE_MAGIC) {
+			order = ByteOrder.LITTLE_ENDIAN;
+		}
+		IntBuffer header = headerBytes.order(order).asIntBuffer();
+		
+		if(header.get(0) != IMAGE_MAGIC || header.get(1) != IMAGE_VERSION) {
+			throw new IOException("The file is not a tree image of version "+IMAGE_VERSION);
+		}
+		long arrayBytes = 4L*header.get(2);
+		if(channel.size() != 4L*IMAGE_HEADER + 4*arrayBytes) {
+			throw new IOException("The size of the file does not match the header of the tree image");
+		}
+		
+		IntBuffer[] mapped = new IntBuffer[5];
+		mapped[0] = header;
+		for(int a=0; a<4; a++) {
+			mapped[a+1] = channel.map(mode, 4L*IMAGE_HEADER + a*arrayBytes, arrayBytes).order(order).asIntBuffer();
+		}
+		return mapped;
+	}
+	
+	/**
+	 * Method to traverse the tree in an inorder way and print its keys,
+	 * using the range cursor over all the keys, which keeps the nodes 
+	 * still to be printed in an explicit stack instead of recursion
+	 */
+	public void inorder() {
+		PrimitiveIterator.OfInt cursor = rangeIterator(Integer.MIN_VALUE, Integer.MAX_VALUE);
+		while(cursor.hasNext()) {
+			System.out.print(cursor.nextInt()+"   ");
 		}
 	}
 	
@@ -358,7 +826,9 @@ public class BST_Arr {
 	 * @return
 	 */
 	public int[] inorderToArray() {
-		inorderToArrayRec(root);
+		this.sortedArray = new int[numberOfNodes];
+		this.iterator = 0;
+		inorderToArrayIter();
 		return sortedArray;
 	}
 	
@@ -372,16 +842,30 @@ public class BST_Arr {
 	}
 	
 	/**
-	 * Method that performs an inorder 
-	 * traversal in the tree and it recursively stores
-	 * the sorted keys in the the single dimensional array
-	 * @param rt
+	 * Method that performs an inorder traversal in the tree and stores
+	 * the sorted keys in the the single dimensional array.
+	 * 
+	 * It is iterative: we move down the left hand side pushing the nodes
+	 * in an explicit stack, then we pop a node, store its key and continue
+	 * with its right subtree. The stack grows with the height of the tree,
+	 * so a degenerate tree does not overflow the call stack.
 	 */
-	private void inorderToArrayRec(int rt) {
-		if(rt!=NULL) {
-			inorderToArrayRec(getLeftChild(rt));
-			addInSortedArray(getInfo(rt));
-			inorderToArrayRec(getRightChild(rt));
+	private void inorderToArrayIter() {
+		int[] stack = new int[32];
+		int top = 0;
+		int node = this.root;
+		
+		while(node != NULL || top > 0) {
+			while(node != NULL) {
+				if(top == stack.length) {
+					stack = Arrays.copyOf(stack, 2*top);
+				}
+				stack[top++] = node;
+				node = left[node];
+			}
+			node = stack[--top];
+			addInSortedArray(info[node]);
+			node = right[node];
 		}
 	}
 	
@@ -408,81 +892,343 @@ public class BST_Arr {
 		 * The node at which we currently are, we begin from the root.
 		 */
 		int curNode = this.root;
-		this.comparisons=0;
+		long startTime = recorder.startTime();
+		int comparisons = 0;
+		boolean found = false;
 		
 		while(true) {
 			if(curNode==NULL) {
 				break;
 			}
 			if(getInfo(curNode)==key) {
-				this.comparisons++;
-				return true;
+				comparisons++;
+				found = true;
+				break;
 			}else if(getInfo(curNode)>key) {
 				curNode = getLeftChild(curNode);
-				this.comparisons++;
+				comparisons++;
 				continue;
 			}else {
 				curNode = getRightChild(curNode);
-				this.comparisons++;
+				comparisons++;
 				continue;
 			}
 		}
-		return false;
+		
+		// Every node visited costs one comparison
+		this.comparisons = comparisons;
+		recorder.record(OperationRecorder.SEARCH, comparisons, comparisons, startTime);
+		return found;
+	}
+	
+	/**
+	 * Method that searches for many keys at once.
+	 * 
+	 * A group of searches moves down the tree together, each search 
+	 * taking one step in turn, so the memory accesses of the different
+	 * searches do not depend on each other and the processor can wait
+	 * for their cache misses at the same time, instead of one after the 
+	 * other as in a loop over searchKey. When a search ends, the next key 
+	 * takes its place in the group, so the group stays full even if the 
+	 * searches need different numbers of steps.
+	 * 
+	 * The comparisons are the total of the batch and the searches are
+	 * not passed to the recorder one by one
+	 * 
+	 * @param keys : the keys we are searching for
+	 * @param out : the results, out[i] is true if keys[i] was found
+	 */
+	public void searchKeys(int[] keys, boolean[] out) {
+		if(out.length < keys.length) {
+			throw new IllegalArgumentException("The results array is shorter than the keys array");
+		}
+		int group = Math.min(SEARCH_GROUP, keys.length);
+		int[] slotKey = new int[group];
+		int[] slotNode = new int[group];
+		int[] slotIndex = new int[group];
+		int next = 0;
+		int active = 0;
+		long comparisons = 0;
+		
+		while(active < group) {
+			slotIndex[active] = next;
+			slotKey[active] = keys[next];
+			slotNode[active] = this.root;
+			active++;
+			next++;
+		}
+		
+		while(active > 0) {
+			int j = 0;
+			while(j < active) {
+				int node = slotNode[j];
+				
+				if(node != NULL && info[node] != slotKey[j]) {
+					comparisons++;
+					slotNode[j] = (slotKey[j] < info[node]) ? left[node] : right[node];
+					j++;
+					continue;
+				}
+				
+				// The search of the slot ended, a new key takes its place
+				if(node != NULL) {
+					comparisons++;
+				}
+				out[slotIndex[j]] = (node != NULL);
+				
+				if(next < keys.length) {
+					slotIndex[j] = next;
+					slotKey[j] = keys[next];
+					slotNode[j] = this.root;
+					next++;
+					j++;
+				}else {
+					active--;
+					slotIndex[j] = slotIndex[active];
+					slotKey[j] = slotKey[active];
+					slotNode[j] = slotNode[active];
+				}
+			}
+		}
+		
+		this.comparisons = (int)Math.min(comparisons, Integer.MAX_VALUE);
 	}
 	
 	public void inrange(int a, int b) {
+		long startTime = recorder.startTime();
 		this.comparisons = 0;
-		inrangeRec(root, a, b);
+		int visits = inrangeIter(a, b);
+		recorder.record(OperationRecorder.INRANGE, this.comparisons, visits, startTime);
 	}
 	
 
 	/**
-	 * Recursive method that searches keys within a specific range.
+	 * Method that searches keys within a specific range, iteratively with
+	 * an explicit stack, so even a degenerate tree of any height is traversed
 	 * 
-	 * We begin from the root and every time we check if the @param node
-	 * is a valid node, if not we return
+	 * We move down the left hand side of the tree, pushing the nodes in the 
+	 * stack, as long as the lower bound of the range is less than the key of 
+	 * the current node (the keys on the left may be in the range).
 	 * 
-	 * If the lower bound of the range is less than the key of the current node
-	 * the search continues to the left
+	 * Then we pop a node. If its info is between the lower and upper bound
+	 * then it is a node that we are interested for it, and the nodes are
+	 * popped in ascending order of their keys.
 	 * 
-	 * If the info of the current node is between the lower and upper bound
-	 * then it is a node that we are interested for it. We print its info
-	 * 
-	 * If the upper bound of the range is greater than the key of the current node
-	 * the search continues to the right.
+	 * If the upper bound of the range is greater than the key of the popped node
+	 * the search continues to its right subtree.
 	 * 
 	 * The comparisons between nodes are counted appropriately 
 	 * 
-	 * @param node The current node 
 	 * @param a The lower bound
 	 * @param b The upper bound
+	 * @return int : the number of nodes visited
+	 */
+	private int inrangeIter(int a, int b) {
+		int[] stack = new int[32];
+		int top = 0;
+		int node = this.root;
+		int visits = 0;
+		
+		while(true) {
+			while(node != NULL) {
+				visits++;
+				if(top == stack.length) {
+					stack = Arrays.copyOf(stack, 2*top);
+				}
+				stack[top++] = node;
+				
+				// A bulk load may put keys equal to a in the left subtree
+				if(a <= info[node]) {
+					this.comparisons++;
+					node = left[node];
+				}else {
+					node = NULL;
+				}
+			}
+			if(top == 0) {
+				break;
+			}
+			node = stack[--top];
+			
+			if(a <= info[node] && b >= info[node]) {
+				this.comparisons+=2;
+				//System.out.print(info[node] + " ");
+			}
+			
+			// insertKey puts the keys equal to b in the right subtree
+			if(b >= info[node]) {
+				this.comparisons++;
+				node = right[node];
+			}else {
+				node = NULL;
+			}
+		}
+		return visits;
+	}
+	
+	public PrimitiveIterator.OfInt rangeIterator(int k1, int k2) {
+		return new RangeCursor(k1, k2);
+	}
+	
+	
+	//Order statistics methods
+	
+	
+	/**
+	 * Method that returns the number of nodes of a subtree
+	 * @param node : the root of the subtree
+	 * @return int : the number of nodes, 0 for NULL
 	 */
-	private void inrangeRec(int node, int a, int b) {		
-		if (!isNode(node)) { 
-            return; 
-        } 
-  
-        /* Since the desired o/p is sorted, recurse for left subtree first 
-         If root->data is greater than k1, then only we can get o/p keys 
-         in left subtree */
-        if (a < getInfo(node)) { 
-        	this.comparisons++;
-            inrangeRec(getLeftChild(node), a, b); 
-        } 
-  
-        /* if root's data lies in range, then prints root's data */
-        if (a <= getInfo(node) && b >= getInfo(node)) {
-        	this.comparisons+=2;
-            //System.out.print(getInfo(node) + " "); 
-        } 
-  
-        /* If root->data is smaller than k2, then only we can get o/p keys 
-         in right subtree */
-        if (b > getInfo(node)) {
-        	this.comparisons++;
-            inrangeRec(getRightChild(node), a, b); 
-        } 
+	public int getSize(int node) {
+		return (node == NULL) ? 0 : this.size[node];
+	}
+	
+	/**
+	 * Method that returns the number of keys of the tree that are smaller
+	 * than a given key. Moving down the tree, every time we go right the 
+	 * node and its left subtree are smaller, so they are added to the rank
+	 * @param key : the key, which does not have to be in the tree
+	 * @return int : the number of smaller keys
+	 */
+	public int rank(int key) {
+		int x = this.root;
+		int rank = 0;
+		int comparisons = 0;
+		
+		while(x != NULL) {
+			comparisons++;
+			if(key <= info[x]) {
+				x = left[x];
+			}else {
+				rank += getSize(left[x]) + 1;
+				x = right[x];
+			}
+		}
 		
+		this.comparisons = comparisons;
+		return rank;
+	}
+	
+	/**
+	 * Method that returns the number of keys of the tree that are 
+	 * smaller than or equal to a given key
+	 * @param key : the key
+	 * @return int : the number of keys
+	 */
+	private int rankInclusive(int key) {
+		if(key == Integer.MAX_VALUE) {
+			this.comparisons = 0;
+			return numberOfNodes;
+		}
+		return rank(key+1);
+	}
+	
+	/**
+	 * Method that returns the k-th smallest key of the tree. Moving down
+	 * the tree, the size of the left subtree tells if the key is in it,
+	 * at the node itself or in the right subtree
+	 * @param k : the position of the key in ascending order, starting from 0
+	 * @return int : the key
+	 * @throws IndexOutOfBoundsException if k is not less than the number of nodes
+	 */
+	public int select(int k) {
+		if(k < 0 || k >= numberOfNodes) {
+			throw new IndexOutOfBoundsException("No key at position "+k+" of "+numberOfNodes);
+		}
+		int x = this.root;
+		int comparisons = 0;
+		
+		while(true) {
+			comparisons++;
+			int leftSize = getSize(left[x]);
+			if(k < leftSize) {
+				x = left[x];
+			}else if(k == leftSize) {
+				break;
+			}else {
+				k -= leftSize + 1;
+				x = right[x];
+			}
+		}
+		
+		this.comparisons = comparisons;
+		return info[x];
+	}
+	
+	/**
+	 * Method that counts the keys within a range with two rank
+	 * searches, in O(h) time however many the keys are
+	 * @param k1 : the lower bound
+	 * @param k2 : the upper bound
+	 * @return int : the number of keys in the range
+	 */
+	public int countInRange(int k1, int k2) {
+		if(k1 > k2) {
+			this.comparisons = 0;
+			return 0;
+		}
+		int upper = rankInclusive(k2);
+		int comparisons = this.comparisons;
+		int count = upper - rank(k1);
+		this.comparisons += comparisons;
+		return count;
+	}
+	
+	public int countInRange(int k1, int k2, int limit) {
+		return Math.min(limit, countInRange(k1, k2));
+	}
+	
+	/**
+	 * Cursor over the keys of the tree within a range. It keeps in an
+	 * explicit stack the nodes whose key and right subtree are still to
+	 * be returned, so it needs O(h) space instead of recursion
+	 */
+	private class RangeCursor implements PrimitiveIterator.OfInt {
+		
+		private final int k2;
+		private int[] stack;
+		private int top;
+		
+		private RangeCursor(int k1, int k2) {
+			this.k2 = k2;
+			this.stack = new int[32];
+			this.top = 0;
+			
+			// Push the path to the first key >= k1, skipping the smaller keys
+			int node = root;
+			while(node != NULL) {
+				if(k1 <= info[node]) {
+					push(node);
+					node = left[node];
+				}else {
+					node = right[node];
+				}
+			}
+		}
+		
+		private void push(int node) {
+			if(top == stack.length) {
+				stack = Arrays.copyOf(stack, 2*top);
+			}
+			stack[top++] = node;
+		}
+		
+		public boolean hasNext() {
+			return top > 0 && info[stack[top-1]] <= k2;
+		}
+		
+		public int nextInt() {
+			if(!hasNext()) {
+				throw new NoSuchElementException();
+			}
+			int node = stack[--top];
+			
+			// The next keys are the leftmost path of the right subtree
+			for(int n = right[node]; n != NULL; n = left[n]) {
+				push(n);
+			}
+			return info[node];
+		}
 	}
 	
 	/**
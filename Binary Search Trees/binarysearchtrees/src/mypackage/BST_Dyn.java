@@ -1,4 +1,7 @@
 package mypackage;
+import java.util.ArrayDeque;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
 
 /**
  * Class that implements a BST with dynamic memory allocation
@@ -8,109 +11,386 @@ package mypackage;
  * @from GeeksForGeeks
  * 
  */
-public class BST_Dyn {
+public class BST_Dyn implements SearchTree, RangeSearch {
 	
 	private Node root;
 	private int comparisons;
 	
+	/**
+	 * The recorder of the operations, OperationRecorder.NONE if they are not recorded
+	 */
+	private OperationRecorder recorder;
+	
 	public BST_Dyn() {
 		this.root = null;
 		this.comparisons = 0;
+		this.recorder = OperationRecorder.NONE;
 	}
 	
 	public int getComparisons() {
 		return this.comparisons;
 	}
 	
-	public void insertKey(int key) {
-		root = insertRec(root,key);
+	public OperationRecorder getRecorder() {
+		return this.recorder;
+	}
+	
+	/**
+	 * Method that sets the recorder of the operations of the tree.
+	 * The comparisons of the last operation are still kept for getComparisons(),
+	 * the recorder also works when the tree is used by many threads
+	 * @param recorder : the recorder, OperationRecorder.NONE to stop recording
+	 */
+	public void setRecorder(OperationRecorder recorder) {
+		this.recorder = recorder;
 	}
 	
-	private Node insertRec(Node root, int key) {
-		this.comparisons=0;
+	/**
+	 * Method that inserts a key in the tree. We move down from the root 
+	 * according to the key until we reach an empty child position, where
+	 * the new node is attached. Duplicate keys are ignored.
+	 * @param key : the key to be inserted
+	 */
+	public void insertKey(int key) {
+		long startTime = recorder.startTime();
+		int comparisons = 0;
+		int visits = 0;
 
 		if (root == null) { 
             root = new Node(key); 
-            return root; 
+            this.comparisons = 0;
+            recorder.record(OperationRecorder.INSERT, 0, 0, startTime);
+            return; 
         } 
-		this.comparisons++;
+		
+		Node current = root;
   
-        /* Otherwise, recur down the tree */
-        if (key < root.getKey()) { 
-            root.setLeft(insertRec(root.getLeft(), key));
-        }
-        else if (key > root.getKey()) {
-            root.setRight(insertRec(root.getRight(), key)); 
-        }
-		this.comparisons+=2;
+		/* Move down the tree, every node on the path gets one more key in its subtree */
+		while(true) {
+			visits++;
+			comparisons+=2;
+			current.setSize(current.getSize()+1);
+			
+	        if (key < current.getKey()) { 
+	        	if(current.getLeft() == null) {
+	        		current.setLeft(new Node(key));
+	        		break;
+	        	}
+	        	current = current.getLeft();
+	        }
+	        else if (key > current.getKey()) {
+	        	if(current.getRight() == null) {
+	        		current.setRight(new Node(key));
+	        		break;
+	        	}
+	        	current = current.getRight();
+	        }else {
+	        	comparisons++;
+	        	
+	        	/* The key exists, so the sizes of the path are restored */
+	        	for(Node n = root; n != current; n = (key < n.getKey()) ? n.getLeft() : n.getRight()) {
+	        		n.setSize(n.getSize()-1);
+	        	}
+	        	current.setSize(current.getSize()-1);
+	        	break;
+	        }
+		}
 
-        /* return the (unchanged) node pointer */
-        return root; 
+		this.comparisons = comparisons;
+		recorder.record(OperationRecorder.INSERT, comparisons, visits, startTime);
 	}
 	
+	/**
+	 * Method that removes all the keys of the tree
+	 */
+	public void clear() {
+		this.root = null;
+		this.comparisons = 0;
+	}
+	
+	/**
+	 * Method that replaces the contents of the tree with a perfectly
+	 * balanced tree built from keys given in ascending order.
+	 * Like insertKey, the repeated keys are stored once.
+	 * Every key is visited once, so the construction takes O(n) time.
+	 * @param sortedKeys : the keys in ascending order, they may repeat
+	 */
+	public void bulkLoad(int[] sortedKeys) {
+		this.comparisons = 0;
+		int[] keys = SearchTree.distinctKeys(sortedKeys);
+		root = bulkLoadRec(keys, 0, keys.length-1);
+	}
+	
+	/**
+	 * Recursive method that builds a balanced subtree from a range of 
+	 * the sorted keys. The middle key becomes the root of the subtree and
+	 * the two halves of the range form its left and right subtrees
+	 * @param sortedKeys : the keys in ascending order
+	 * @param lo : the first position of the range
+	 * @param hi : the last position of the range
+	 * @return Node : the root of the subtree
+	 */
+	private Node bulkLoadRec(int[] sortedKeys, int lo, int hi) {
+		if(lo > hi) {
+			return null;
+		}
+		
+		int mid = (lo + hi) >>> 1;
+		Node node = new Node(sortedKeys[mid]);
+		node.setLeft(bulkLoadRec(sortedKeys, lo, mid-1));
+		node.setRight(bulkLoadRec(sortedKeys, mid+1, hi));
+		node.setSize(hi-lo+1);
+		return node;
+	}
+	
+	/**
+	 * Method that prints the keys of the tree in an inorder way, using
+	 * the range cursor over all the keys instead of recursion
+	 */
 	public void inorder() {
-		inorderRec(root);
+		PrimitiveIterator.OfInt cursor = rangeIterator(Integer.MIN_VALUE, Integer.MAX_VALUE);
+		while(cursor.hasNext()) {
+			System.out.print(cursor.nextInt()+"   ");
+		}
 	}
 	
-	private void inorderRec(Node root) { 
-        if (root != null) { 
-            inorderRec(root.getLeft()); 
-            System.out.print(root.getKey()+"   "); 
-            inorderRec(root.getRight()); 
-        } 
-    } 
+	/**
+	 * Method that returns the keys of the tree in ascending order
+	 * @return int[] : the sorted keys
+	 */
+	public int[] inorderToArray() {
+		int[] keys = new int[sizeOf(root)];
+		int found = 0;
+		PrimitiveIterator.OfInt cursor = rangeIterator(Integer.MIN_VALUE, Integer.MAX_VALUE);
+		while(cursor.hasNext()) {
+			keys[found++] = cursor.nextInt();
+		}
+		return keys;
+	}
 	
 	public boolean searchKey(int searchKey){
 		
 		Node current = root;
-		this.comparisons=0;
+		long startTime = recorder.startTime();
+		int comparisons = 0;
+		boolean found = false;
 		
 		while(current!=null){
 			if(current.getKey()==searchKey){
-				this.comparisons++;
-				return true;
+				comparisons++;
+				found = true;
+				break;
 			}else if(current.getKey()>searchKey){
 				current = current.getLeft();
-				this.comparisons++;
+				comparisons++;
 			}else{
 				current = current.getRight();
-				this.comparisons++;
+				comparisons++;
 			}
 		}
-		return false;
+		
+		// Every node visited costs one comparison
+		this.comparisons = comparisons;
+		recorder.record(OperationRecorder.SEARCH, comparisons, comparisons, startTime);
+		return found;
 	}
 	
 	public void inrange(int k1, int k2) {
+		long startTime = recorder.startTime();
 		this.comparisons = 0;
-		inrangeRec(root, k1, k2);
+		int visits = inrangeIter(k1, k2);
+		recorder.record(OperationRecorder.INRANGE, this.comparisons, visits, startTime);
 	}
 	
-	private void inrangeRec(Node node, int k1, int k2) {	          
-        /* base case */
-	    if (node == null) { 
-	    	return; 
-        } 
-  
-        /* Since the desired o/p is sorted, recurse for left subtree first 
-         If root->data is greater than k1, then only we can get o/p keys 
-         in left subtree */
-        if (k1 < node.getKey()) { 
-        	this.comparisons++;
-            inrangeRec(node.getLeft(), k1, k2); 
-        } 
-  
-        /* if root's data lies in range, then prints root's data */
-        if (k1 <= node.getKey() && k2 >= node.getKey()) { 
-        	this.comparisons+=2;
-        	//System.out.print(node.getKey() + " "); 
-        } 
-  
-        /* If root->data is smaller than k2, then only we can get o/p keys 
-         in right subtree */
-        if (k2 > node.getKey()) { 
-        	this.comparisons++;
-        	inrangeRec(node.getRight(), k1, k2); 
-        } 
+	/**
+	 * Method that visits the keys of the tree within a range in ascending
+	 * order, iteratively with an explicit stack of the nodes whose key and 
+	 * right subtree are still to be visited
+	 * @param k1 : the lower bound
+	 * @param k2 : the upper bound
+	 * @return int : the number of nodes visited
+	 */
+	private int inrangeIter(int k1, int k2) {
+		ArrayDeque<Node> stack = new ArrayDeque<Node>();
+		Node node = root;
+		int visits = 0;
+		
+		while(true) {
+			/* Move down the left hand side while the keys on the left may be in the range */
+			while(node != null) {
+				visits++;
+				stack.push(node);
+				if(k1 < node.getKey()) {
+					this.comparisons++;
+					node = node.getLeft();
+				}else {
+					node = null;
+				}
+			}
+			if(stack.isEmpty()) {
+				break;
+			}
+			node = stack.pop();
+			
+			/* if the key lies in range, then it is visited */
+			if(k1 <= node.getKey() && k2 >= node.getKey()) {
+				this.comparisons+=2;
+				//System.out.print(node.getKey() + " ");
+			}
+			
+			/* If the key is smaller than k2, then only we can get keys in the right subtree */
+			if(k2 > node.getKey()) {
+				this.comparisons++;
+				node = node.getRight();
+			}else {
+				node = null;
+			}
+		}
+		return visits;
+	}
+	
+	public PrimitiveIterator.OfInt rangeIterator(int k1, int k2) {
+		return new RangeCursor(root, k1, k2);
+	}
+	
+	/**
+	 * Method that returns the number of nodes of the tree
+	 * @return int : the number of nodes
+	 */
+	public int getNumberOfNodes() {
+		return sizeOf(root);
+	}
+	
+	private static int sizeOf(Node node) {
+		return (node == null) ? 0 : node.getSize();
+	}
+	
+	/**
+	 * Method that returns the number of keys of the tree that are smaller
+	 * than a given key. Moving down the tree, every time we go right the 
+	 * node and its left subtree are smaller, so they are added to the rank
+	 * @param key : the key, which does not have to be in the tree
+	 * @return int : the number of smaller keys
+	 */
+	public int rank(int key) {
+		Node current = root;
+		int rank = 0;
+		int comparisons = 0;
+		
+		while(current != null) {
+			comparisons++;
+			if(key <= current.getKey()) {
+				current = current.getLeft();
+			}else {
+				rank += sizeOf(current.getLeft()) + 1;
+				current = current.getRight();
+			}
+		}
+		
+		this.comparisons = comparisons;
+		return rank;
+	}
+	
+	/**
+	 * Method that returns the k-th smallest key of the tree. Moving down
+	 * the tree, the size of the left subtree tells if the key is in it,
+	 * at the node itself or in the right subtree
+	 * @param k : the position of the key in ascending order, starting from 0
+	 * @return int : the key
+	 * @throws IndexOutOfBoundsException if k is not less than the number of nodes
+	 */
+	public int select(int k) {
+		if(k < 0 || k >= sizeOf(root)) {
+			throw new IndexOutOfBoundsException("No key at position "+k+" of "+sizeOf(root));
+		}
+		Node current = root;
+		int comparisons = 0;
+		
+		while(true) {
+			comparisons++;
+			int leftSize = sizeOf(current.getLeft());
+			if(k < leftSize) {
+				current = current.getLeft();
+			}else if(k == leftSize) {
+				break;
+			}else {
+				k -= leftSize + 1;
+				current = current.getRight();
+			}
+		}
+		
+		this.comparisons = comparisons;
+		return current.getKey();
+	}
+	
+	/**
+	 * Method that counts the keys within a range with two rank
+	 * searches, in O(h) time however many the keys are
+	 * @param k1 : the lower bound
+	 * @param k2 : the upper bound
+	 * @return int : the number of keys in the range
+	 */
+	public int countInRange(int k1, int k2) {
+		if(k1 > k2) {
+			this.comparisons = 0;
+			return 0;
+		}
+		if(k2 == Integer.MAX_VALUE) {
+			return sizeOf(root) - rank(k1);
+		}
+		int upper = rank(k2+1);
+		int comparisons = this.comparisons;
+		int count = upper - rank(k1);
+		this.comparisons += comparisons;
+		return count;
+	}
+	
+	public int countInRange(int k1, int k2, int limit) {
+		return Math.min(limit, countInRange(k1, k2));
+	}
+	
+	/**
+	 * Cursor over the keys of the tree within a range. It keeps in an
+	 * explicit stack the nodes whose key and right subtree are still to
+	 * be returned, so it needs O(h) space instead of recursion
+	 */
+	private static class RangeCursor implements PrimitiveIterator.OfInt {
+		
+		private final int k2;
+		private final ArrayDeque<Node> stack;
+		
+		private RangeCursor(Node root, int k1, int k2) {
+			this.k2 = k2;
+			this.stack = new ArrayDeque<Node>();
+			
+			// Push the path to the first key >= k1, skipping the smaller keys
+			Node node = root;
+			while(node != null) {
+				if(k1 <= node.getKey()) {
+					stack.push(node);
+					node = node.getLeft();
+				}else {
+					node = node.getRight();
+				}
+			}
+		}
+		
+		public boolean hasNext() {
+			return !stack.isEmpty() && stack.peek().getKey() <= k2;
+		}
+		
+		public int nextInt() {
+			if(!hasNext()) {
+				throw new NoSuchElementException();
+			}
+			Node node = stack.pop();
+			
+			// The next keys are the leftmost path of the right subtree
+			for(Node n = node.getRight(); n != null; n = n.getLeft()) {
+				stack.push(n);
+			}
+			return node.getKey();
+		}
 	}
 
 }
@@ -0,0 +1,459 @@
+package mypackage;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+
+/**
+ * This class implements a Binary Search Tree like the BST_Arr class,
+ * with the key and the references of every node stored next to each
+ * other in a single array
+ *
+ * BST_Arr keeps the keys, the left and the right references in three
+ * arrays, so visiting a node may touch three different cache lines.
+ * Here the node at field i occupies the positions [stride*i, stride*i+2]
+ * of one array (key, left, right), so a visit usually touches a single line.
+ * The references are the positions of the children in the array, so
+ * moving down the tree needs no multiplication.
+ *
+ * With stride 3 the nodes take the same memory as in BST_Arr, and some
+ * of them cross the border of a 64 byte cache line. With stride 4 the
+ * fourth int is padding and the nodes are aligned to 16 bytes relative
+ * to the start of the array. The JVM only aligns the array object to 8
+ * bytes and puts a 12-16 byte header before the first int, so this is
+ * not a guarantee, but the nodes usually do not cross a line.
+ *
+ * Deleted nodes are pushed in an availability stack, linked through
+ * their left references, and the array grows geometrically when all
+ * the nodes are used, like in BST_Arr.
+ *
+ * @author Dimitris Petrou | 2018030070 | ece@tuc
+ *
+ */
+public class BST_Interleaved implements SearchTree, RangeSearch {
+
+	/**
+	 * A conventional null value that equals to -1
+	 */
+	private static final int NULL = -1;
+
+	/**
+	 * The capacity of the array when no expected size is given
+	 */
+	private static final int DEFAULT_CAPACITY = 16;
+
+	/**
+	 * The offsets of the fields in a node
+	 */
+	private static final int KEY = 0;
+	private static final int LEFT = 1;
+	private static final int RIGHT = 2;
+
+	/**
+	 * The array storing the nodes one after the other
+	 */
+	private int[] nodes;
+
+	/**
+	 * The number of ints of every node, 3 or 4
+	 */
+	private final int stride;
+
+	/**
+	 * The number of nodes the array can hold
+	 */
+	private int capacity;
+
+	/**
+	 * The position of the root in the array
+	 */
+	private int root;
+
+	/**
+	 * The position of the first available node (the top of the availability stack)
+	 */
+	private int avail;
+
+	/**
+	 * The number of nodes stored in the tree
+	 */
+	private int numberOfNodes;
+
+	/**
+	 * A member variable used to track the number of comparisons performed by each method
+	 */
+	private int comparisons;
+
+	/**
+	 * The recorder of the operations, OperationRecorder.NONE if they are not recorded
+	 */
+	private OperationRecorder recorder;
+
+
+	/**
+	 * Class constructor with int arguments
+	 * @param ts : the expected number of nodes of the tree, used as the initial capacity
+	 * @param stride : the number of ints of every node, 3 (packed) or 4 (16 bytes from the start of the array)
+	 */
+	public BST_Interleaved(int ts, int stride) {
+		if(stride != 3 && stride != 4) {
+			throw new IllegalArgumentException("The stride of the nodes must be 3 or 4");
+		}
+		this.stride = stride;
+		this.capacity = Math.max(ts, DEFAULT_CAPACITY);
+		if((long)capacity*stride > Integer.MAX_VALUE-8) {
+			throw new IllegalArgumentException("Too many nodes for a single array");
+		}
+		this.nodes = new int[capacity*stride];
+		this.root = NULL;
+		this.avail = NULL;
+		this.numberOfNodes = 0;
+		this.comparisons = 0;
+		this.recorder = OperationRecorder.NONE;
+
+		setupStack(0);
+	}
+
+	/**
+	 * Class constructor with an int argument, the nodes take 16 bytes
+	 * @param ts : the expected number of nodes of the tree
+	 */
+	public BST_Interleaved(int ts) {
+		this(ts, 4);
+	}
+
+	/**
+	 * Method that pushes the nodes starting from a field in the availability stack
+	 * @param from : the first field to be pushed
+	 */
+	private void setupStack(int from) {
+		for(int i=capacity-1; i>=from; i--) {
+			int pos = i*stride;
+			nodes[pos+LEFT] = avail;
+			nodes[pos+RIGHT] = NULL;
+			avail = pos;
+		}
+	}
+
+	/**
+	 * Method that doubles the capacity of the array, keeping the nodes at the same positions
+	 */
+	private void grow() {
+		int oldCapacity = capacity;
+		if((long)capacity*2*stride > Integer.MAX_VALUE-8) {
+			throw new IllegalStateException("Too many nodes for a single array");
+		}
+		this.capacity = 2*capacity;
+		this.nodes = Arrays.copyOf(nodes, capacity*stride);
+		setupStack(oldCapacity);
+	}
+
+	public int getStride() {
+		return this.stride;
+	}
+
+	public int getNumberOfNodes() {
+		return this.numberOfNodes;
+	}
+
+	public int getCapacity() {
+		return this.capacity;
+	}
+
+	public int getComparisons() {
+		return this.comparisons;
+	}
+
+	/**
+	 * Method that removes all the keys of the tree and pushes
+	 * all the nodes in the availability stack
+	 */
+	public void clear() {
+		this.root = NULL;
+		this.avail = NULL;
+		this.numberOfNodes = 0;
+		this.comparisons = 0;
+		setupStack(0);
+	}
+
+	public OperationRecorder getRecorder() {
+		return this.recorder;
+	}
+
+	/**
+	 * Method that sets the recorder of the operations of the tree
+	 * @param recorder : the recorder, OperationRecorder.NONE to stop recording
+	 */
+	public void setRecorder(OperationRecorder recorder) {
+		this.recorder = recorder;
+	}
+
+	/**
+	 * Method that takes a node from the availability stack, the array grows if it is empty
+	 * @return int : the position of the node
+	 */
+	private int useAvailNode() {
+		if(avail == NULL) {
+			grow();
+		}
+		int pos = avail;
+		avail = nodes[pos+LEFT];
+		return pos;
+	}
+
+	/**
+	 * Method that pushes the node of a deleted key in the availability stack
+	 * @param pos : the position of the node
+	 */
+	private void freeNode(int pos) {
+		nodes[pos+LEFT] = avail;
+		nodes[pos+RIGHT] = NULL;
+		avail = pos;
+	}
+
+	/**
+	 * Method that inserts a key in the tree. Like in BST_Arr, the equal
+	 * keys are inserted in the right subtree
+	 * @param key : the key to be inserted
+	 */
+	public void insertKey(int key) {
+		long startTime = recorder.startTime();
+		int pos = useAvailNode();
+		int comparisons = 0;
+		int visits = 0;
+		nodes[pos+KEY] = key;
+		nodes[pos+LEFT] = NULL;
+		nodes[pos+RIGHT] = NULL;
+		this.numberOfNodes++;
+
+		if(this.root == NULL) {
+			this.root = pos;
+			this.comparisons = 0;
+			recorder.record(OperationRecorder.INSERT, 0, 0, startTime);
+			return;
+		}
+
+		int x = this.root;
+		while(true) {
+			visits++;
+			comparisons++;
+			int side = (key < nodes[x+KEY]) ? LEFT : RIGHT;
+			int child = nodes[x+side];
+			if(child == NULL) {
+				nodes[x+side] = pos;
+				break;
+			}
+			x = child;
+		}
+
+		this.comparisons = comparisons;
+		recorder.record(OperationRecorder.INSERT, comparisons, visits, startTime);
+	}
+
+	/**
+	 * Method that deletes a key from the tree. A node with two children
+	 * takes the key of its inorder successor, which is removed instead
+	 * @param key : the key to be deleted
+	 */
+	public void deleteKey(int key) {
+		long startTime = recorder.startTime();
+		int comparisons = 0;
+		int visits = 0;
+		int parent = NULL;
+		int x = this.root;
+
+		while(x != NULL && nodes[x+KEY] != key) {
+			comparisons+=2;
+			visits++;
+			parent = x;
+			x = (key < nodes[x+KEY]) ? nodes[x+LEFT] : nodes[x+RIGHT];
+		}
+
+		if(x == NULL) {
+			this.comparisons = comparisons;
+			recorder.record(OperationRecorder.DELETE, comparisons, visits, startTime);
+			return;
+		}
+		comparisons++;
+		visits++;
+
+		if(nodes[x+LEFT] != NULL && nodes[x+RIGHT] != NULL) {
+			int successorParent = x;
+			int successor = nodes[x+RIGHT];
+			visits++;
+
+			while(nodes[successor+LEFT] != NULL) {
+				successorParent = successor;
+				successor = nodes[successor+LEFT];
+				visits++;
+			}
+
+			nodes[x+KEY] = nodes[successor+KEY];
+			nodes[successorParent + ((successorParent == x) ? RIGHT : LEFT)] = nodes[successor+RIGHT];
+			freeNode(successor);
+		}else {
+			int child = (nodes[x+LEFT] != NULL) ? nodes[x+LEFT] : nodes[x+RIGHT];
+
+			if(parent == NULL) {
+				this.root = child;
+			}else {
+				nodes[parent + ((nodes[parent+LEFT] == x) ? LEFT : RIGHT)] = child;
+			}
+			freeNode(x);
+		}
+
+		this.numberOfNodes--;
+		this.comparisons = comparisons;
+		recorder.record(OperationRecorder.DELETE, comparisons, visits, startTime);
+	}
+
+	/**
+	 * Method that replaces the contents of the tree with a perfectly
+	 * balanced tree built from keys given in ascending order. The key
+	 * at position i is stored at the node of field i
+	 * @param sortedKeys : the keys in ascending order
+	 */
+	public void bulkLoad(int[] sortedKeys) {
+		int n = sortedKeys.length;
+		this.comparisons = 0;
+		if(n > capacity) {
+			this.capacity = n;
+			this.nodes = new int[capacity*stride];
+		}
+		this.numberOfNodes = n;
+		this.avail = NULL;
+		setupStack(n);
+		this.root = bulkLoadRec(sortedKeys, 0, n-1);
+	}
+
+	/**
+	 * Recursive method that builds a balanced subtree from a range of the sorted keys
+	 * @param sortedKeys : the keys in ascending order
+	 * @param lo : the first position of the range
+	 * @param hi : the last position of the range
+	 * @return int : the position of the root of the subtree
+	 */
+	private int bulkLoadRec(int[] sortedKeys, int lo, int hi) {
+		if(lo > hi) {
+			return NULL;
+		}
+
+		int mid = (lo + hi) >>> 1;
+		int pos = mid*stride;
+		nodes[pos+KEY] = sortedKeys[mid];
+		nodes[pos+LEFT] = bulkLoadRec(sortedKeys, lo, mid-1);
+		nodes[pos+RIGHT] = bulkLoadRec(sortedKeys, mid+1, hi);
+		return pos;
+	}
+
+	public boolean searchKey(int key) {
+		long startTime = recorder.startTime();
+		int[] nodes = this.nodes;
+		int x = this.root;
+		int comparisons = 0;
+		boolean found = false;
+
+		while(x != NULL) {
+			comparisons++;
+			int k = nodes[x+KEY];
+			if(k == key) {
+				found = true;
+				break;
+			}
+			x = nodes[x + ((key < k) ? LEFT : RIGHT)];
+		}
+
+		// Every node visited costs one comparison
+		this.comparisons = comparisons;
+		recorder.record(OperationRecorder.SEARCH, comparisons, comparisons, startTime);
+		return found;
+	}
+
+	public void inrange(int k1, int k2) {
+		long startTime = recorder.startTime();
+		RangeCursor cursor = new RangeCursor(k1, k2);
+		while(cursor.hasNext()) {
+			cursor.nextInt();
+		}
+		this.comparisons = cursor.visits;
+		recorder.record(OperationRecorder.INRANGE, cursor.visits, cursor.visits, startTime);
+	}
+
+	public void inorder() {
+		PrimitiveIterator.OfInt cursor = rangeIterator(Integer.MIN_VALUE, Integer.MAX_VALUE);
+		while(cursor.hasNext()) {
+			System.out.print(cursor.nextInt()+"   ");
+		}
+	}
+
+	/**
+	 * Method that returns the keys of the tree in ascending order
+	 * @return int[] : the sorted keys
+	 */
+	public int[] inorderToArray() {
+		int[] keys = new int[numberOfNodes];
+		int[] found = new int[1];
+		inrange(Integer.MIN_VALUE, Integer.MAX_VALUE, key -> keys[found[0]++] = key);
+		return keys;
+	}
+
+	public PrimitiveIterator.OfInt rangeIterator(int k1, int k2) {
+		return new RangeCursor(k1, k2);
+	}
+
+	/**
+	 * Cursor over the keys of the tree within a range, with an explicit
+	 * stack of the nodes whose key and right subtree are still to be returned
+	 */
+	private class RangeCursor implements PrimitiveIterator.OfInt {
+
+		private final int k2;
+		private int[] stack;
+		private int top;
+		private int visits;
+
+		private RangeCursor(int k1, int k2) {
+			this.k2 = k2;
+			this.stack = new int[32];
+			this.top = 0;
+			this.visits = 0;
+
+			// Push the path to the first key >= k1, skipping the smaller keys
+			int x = root;
+			while(x != NULL) {
+				visits++;
+				if(k1 <= nodes[x+KEY]) {
+					push(x);
+					x = nodes[x+LEFT];
+				}else {
+					x = nodes[x+RIGHT];
+				}
+			}
+		}
+
+		private void push(int x) {
+			if(top == stack.length) {
+				stack = Arrays.copyOf(stack, 2*top);
+			}
+			stack[top++] = x;
+		}
+
+		public boolean hasNext() {
+			return top > 0 && nodes[stack[top-1]+KEY] <= k2;
+		}
+
+		public int nextInt() {
+			if(!hasNext()) {
+				throw new NoSuchElementException();
+			}
+			int x = stack[--top];
+
+			// The next keys are the leftmost path of the right subtree
+			for(int n = nodes[x+RIGHT]; n != NULL; n = nodes[n+LEFT]) {
+				visits++;
+				push(n);
+			}
+			return nodes[x+KEY];
+		}
+	}
+
+}
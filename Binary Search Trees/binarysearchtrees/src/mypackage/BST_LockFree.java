@@ -0,0 +1,524 @@
+package mypackage;
+import java.util.ArrayDeque;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+
+/**
+ * Class that implements a non-blocking BST, which can be shared by
+ * many threads without locks
+ *
+ * The tree is leaf-oriented: the keys are stored in the leaves and the
+ * internal nodes only route the searches, so every internal node has
+ * exactly two children. Two sentinel leaves with keys greater than any
+ * int keep the root and its left child always internal.
+ *
+ * The search reads the child references without any synchronization.
+ * An insertion replaces a leaf with a new internal node having the old
+ * and the new leaf as children, and a deletion replaces the parent of a
+ * leaf with the sibling of the leaf. Both change a single child reference
+ * with a compare-and-set, after flagging (and, for a deletion, marking)
+ * the nodes that are changed through their update field. A thread that
+ * finds a flagged node helps the pending operation to finish instead of
+ * waiting, so no thread ever blocks another.
+ *
+ * Removed nodes are never reused, the garbage collector reclaims them
+ * when no thread refers to them any more, so the ABA problem cannot occur.
+ *
+ * @author Dimitris Petrou | 2018030070 | ece@tuc
+ *
+ * @from Non-blocking Binary Search Trees (Ellen, Fatourou, Ruppert, van Breugel)
+ *
+ */
+public class BST_LockFree implements SearchTree {
+
+	/**
+	 * The states of the update field of an internal node
+	 */
+	private static final int CLEAN = 0;
+	private static final int IFLAG = 1;
+	private static final int DFLAG = 2;
+	private static final int MARK = 3;
+
+	/**
+	 * The keys of the two sentinel leaves, greater than any int key
+	 */
+	private static final long INF1 = Integer.MAX_VALUE + 1L;
+	private static final long INF2 = Integer.MAX_VALUE + 2L;
+
+	/**
+	 * A node of the tree, keys are long so that the sentinels fit
+	 */
+	private static class TreeNode {
+		final long key;
+
+		TreeNode(long key) {
+			this.key = key;
+		}
+	}
+
+	/**
+	 * A leaf holding a key of the tree
+	 */
+	private static final class Leaf extends TreeNode {
+		Leaf(long key) {
+			super(key);
+		}
+	}
+
+	/**
+	 * An internal node routing the searches, keys less than its key
+	 * are in its left subtree and the rest in its right subtree
+	 */
+	private static final class Internal extends TreeNode {
+		volatile TreeNode left;
+		volatile TreeNode right;
+		volatile Update update;
+
+		Internal(long key, TreeNode left, TreeNode right) {
+			super(key);
+			this.left = left;
+			this.right = right;
+			this.update = new Update(CLEAN, null);
+		}
+	}
+
+	/**
+	 * The immutable content of the update field: a state and the description
+	 * of the operation that set it. A new object is created for every change,
+	 * so a compare-and-set on the field can not succeed on an older value
+	 */
+	private static final class Update {
+		final int state;
+		final Info info;
+
+		Update(int state, Info info) {
+			this.state = state;
+			this.info = info;
+		}
+	}
+
+	/**
+	 * The description of a pending operation, used by the helping threads
+	 */
+	private static class Info {
+	}
+
+	/**
+	 * An insertion: the leaf l, child of p, is replaced by newInternal
+	 */
+	private static final class InsertInfo extends Info {
+		final Internal p;
+		final Leaf l;
+		final Internal newInternal;
+
+		InsertInfo(Internal p, Leaf l, Internal newInternal) {
+			this.p = p;
+			this.l = l;
+			this.newInternal = newInternal;
+		}
+	}
+
+	/**
+	 * A deletion: the parent p of the leaf l is replaced in gp by the sibling
+	 * of l. pupdate is the update field of p read before gp was flagged
+	 */
+	private static final class DeleteInfo extends Info {
+		final Internal gp;
+		final Internal p;
+		final Leaf l;
+		final Update pupdate;
+
+		DeleteInfo(Internal gp, Internal p, Leaf l, Update pupdate) {
+			this.gp = gp;
+			this.p = p;
+			this.l = l;
+			this.pupdate = pupdate;
+		}
+	}
+
+	/**
+	 * The result of a search: the leaf reached, its parent and grandparent
+	 * and the update fields of the parent and grandparent read on the way
+	 */
+	private static final class SearchResult {
+		Internal gp;
+		Internal p;
+		Leaf l;
+		Update pupdate;
+		Update gpupdate;
+		int comparisons;
+	}
+
+	private static final AtomicReferenceFieldUpdater<Internal, TreeNode> LEFT =
+			AtomicReferenceFieldUpdater.newUpdater(Internal.class, TreeNode.class, "left");
+	private static final AtomicReferenceFieldUpdater<Internal, TreeNode> RIGHT =
+			AtomicReferenceFieldUpdater.newUpdater(Internal.class, TreeNode.class, "right");
+	private static final AtomicReferenceFieldUpdater<Internal, Update> UPDATE =
+			AtomicReferenceFieldUpdater.newUpdater(Internal.class, Update.class, "update");
+
+	/**
+	 * The root of the tree, it never changes
+	 */
+	private final Internal root;
+
+	/**
+	 * The number of comparisons of the last operation. With many threads it
+	 * holds the value of any recent operation, use a recorder instead
+	 */
+	private int comparisons;
+
+	/**
+	 * The recorder of the operations, OperationRecorder.NONE if they are not recorded
+	 */
+	private OperationRecorder recorder;
+
+
+	/**
+	 * Class constructor, the tree starts with the two sentinel leaves
+	 */
+	public BST_LockFree() {
+		this.root = new Internal(INF2, new Leaf(INF1), new Leaf(INF2));
+		this.comparisons = 0;
+		this.recorder = OperationRecorder.NONE;
+	}
+
+	public int getComparisons() {
+		return this.comparisons;
+	}
+
+	/**
+	 * Method that removes all the keys of the tree, leaving the two
+	 * sentinel leaves. It must not run together with other updates
+	 */
+	public void clear() {
+		root.left = new Leaf(INF1);
+		root.update = new Update(CLEAN, null);
+		this.comparisons = 0;
+	}
+
+	public OperationRecorder getRecorder() {
+		return this.recorder;
+	}
+
+	/**
+	 * Method that sets the recorder of the operations of the tree,
+	 * the recorder must be thread-safe if the tree is shared
+	 * @param recorder : the recorder, OperationRecorder.NONE to stop recording
+	 */
+	public void setRecorder(OperationRecorder recorder) {
+		this.recorder = recorder;
+	}
+
+
+	//Search methods
+
+	/**
+	 * Method that moves down from the root to the leaf where the key is or
+	 * would be inserted, remembering the last two internal nodes visited and
+	 * their update fields. The update field of a node is read before its
+	 * child, so a change of the child is always preceded by a change of the
+	 * field that the operations will notice
+	 * @param key : the key we are searching for
+	 * @return SearchResult : the nodes reached
+	 */
+	private SearchResult search(long key) {
+		SearchResult r = new SearchResult();
+		TreeNode l = root;
+		int comparisons = 0;
+
+		while(l instanceof Internal) {
+			r.gp = r.p;
+			r.p = (Internal)l;
+			r.gpupdate = r.pupdate;
+			r.pupdate = r.p.update;
+
+			comparisons++;
+			if(key < l.key) {
+				l = r.p.left;
+			}else {
+				l = r.p.right;
+			}
+		}
+
+		r.l = (Leaf)l;
+		r.comparisons = comparisons+1;
+		return r;
+	}
+
+	/**
+	 * Method that searches for a specific key in the tree without any
+	 * synchronization, it is linearizable with the concurrent updates
+	 * @param key : the key we are searching for
+	 * @return true/false if the key was found or not
+	 */
+	public boolean searchKey(int key) {
+		long startTime = recorder.startTime();
+		TreeNode l = root;
+		int comparisons = 0;
+
+		while(l instanceof Internal) {
+			Internal node = (Internal)l;
+			comparisons++;
+			l = (key < node.key) ? node.left : node.right;
+		}
+		comparisons++;
+
+		this.comparisons = comparisons;
+		recorder.record(OperationRecorder.SEARCH, comparisons, comparisons, startTime);
+		return l.key == key;
+	}
+
+
+	//Update methods
+
+	/**
+	 * Method that inserts a key in the tree if it does not exist.
+	 *
+	 * The parent of the leaf reached is flagged with the description of the
+	 * insertion, then its child is replaced and the flag is removed. If the
+	 * parent is already flagged by another operation, that operation is helped
+	 * first and the insertion starts again.
+	 *
+	 * @param key : the key to be inserted
+	 */
+	public void insertKey(int key) {
+		long startTime = recorder.startTime();
+		int comparisons = 0;
+		int visits = 0;
+
+		while(true) {
+			SearchResult r = search(key);
+			comparisons += r.comparisons;
+			visits += r.comparisons;
+
+			if(r.l.key == key) {
+				break;
+			}
+			if(r.pupdate.state != CLEAN) {
+				help(r.pupdate);
+				continue;
+			}
+
+			Leaf newLeaf = new Leaf(key);
+			Leaf newSibling = new Leaf(r.l.key);
+			Internal newInternal = (key < r.l.key)
+					? new Internal(r.l.key, newLeaf, newSibling)
+					: new Internal(key, newSibling, newLeaf);
+
+			InsertInfo op = new InsertInfo(r.p, r.l, newInternal);
+			Update flag = new Update(IFLAG, op);
+
+			if(UPDATE.compareAndSet(r.p, r.pupdate, flag)) {
+				helpInsert(op, flag);
+				break;
+			}
+			help(r.p.update);
+		}
+
+		this.comparisons = comparisons;
+		recorder.record(OperationRecorder.INSERT, comparisons, visits, startTime);
+	}
+
+	/**
+	 * Method that completes a flagged insertion: the leaf is replaced
+	 * by the new internal node and the parent is unflagged
+	 * @param op : the insertion
+	 * @param flag : the update that flagged the parent
+	 */
+	private void helpInsert(InsertInfo op, Update flag) {
+		casChild(op.p, op.l, op.newInternal);
+		UPDATE.compareAndSet(op.p, flag, new Update(CLEAN, op));
+	}
+
+	/**
+	 * Method that deletes a key from the tree if it exists.
+	 *
+	 * The grandparent of the leaf is flagged with the description of the
+	 * deletion and the parent is marked, so that no other operation can change
+	 * it any more. Then the parent is replaced in the grandparent by the sibling
+	 * of the leaf and the grandparent is unflagged. If the parent can not be
+	 * marked the flag is removed and the deletion starts again.
+	 *
+	 * @param key : the key to be deleted
+	 */
+	public void deleteKey(int key) {
+		long startTime = recorder.startTime();
+		int comparisons = 0;
+		int visits = 0;
+
+		while(true) {
+			SearchResult r = search(key);
+			comparisons += r.comparisons;
+			visits += r.comparisons;
+
+			if(r.l.key != key) {
+				break;
+			}
+			if(r.gpupdate.state != CLEAN) {
+				help(r.gpupdate);
+				continue;
+			}
+			if(r.pupdate.state != CLEAN) {
+				help(r.pupdate);
+				continue;
+			}
+
+			DeleteInfo op = new DeleteInfo(r.gp, r.p, r.l, r.pupdate);
+			Update flag = new Update(DFLAG, op);
+
+			if(UPDATE.compareAndSet(r.gp, r.gpupdate, flag)) {
+				if(helpDelete(op, flag)) {
+					break;
+				}
+			}else {
+				help(r.gp.update);
+			}
+		}
+
+		this.comparisons = comparisons;
+		recorder.record(OperationRecorder.DELETE, comparisons, visits, startTime);
+	}
+
+	/**
+	 * Method that tries to mark the parent of a flagged deletion. On success
+	 * the deletion is completed, else the grandparent is unflagged so that
+	 * the deletion can be retried
+	 * @param op : the deletion
+	 * @param flag : the update that flagged the grandparent
+	 * @return boolean : true if the deletion was completed
+	 */
+	private boolean helpDelete(DeleteInfo op, Update flag) {
+		Update mark = new Update(MARK, op);
+
+		UPDATE.compareAndSet(op.p, op.pupdate, mark);
+		Update current = op.p.update;
+
+		if(current.state == MARK && current.info == op) {
+			helpMarked(op, flag);
+			return true;
+		}
+
+		help(current);
+		UPDATE.compareAndSet(op.gp, flag, new Update(CLEAN, op));
+		return false;
+	}
+
+	/**
+	 * Method that completes a deletion whose parent is marked: the parent
+	 * is replaced by the sibling of the leaf and the grandparent is unflagged
+	 * @param op : the deletion
+	 * @param flag : the update that flagged the grandparent
+	 */
+	private void helpMarked(DeleteInfo op, Update flag) {
+		TreeNode other = (op.p.right == op.l) ? op.p.left : op.p.right;
+		casChild(op.gp, op.p, other);
+		UPDATE.compareAndSet(op.gp, flag, new Update(CLEAN, op));
+	}
+
+	/**
+	 * Method that helps the operation described in an update field to finish
+	 * @param u : the update field read
+	 */
+	private void help(Update u) {
+		switch(u.state) {
+		case IFLAG:
+			helpInsert((InsertInfo)u.info, u);
+			break;
+		case MARK:
+			DeleteInfo op = (DeleteInfo)u.info;
+			Update flag = op.gp.update;
+			if(flag.state == DFLAG && flag.info == op) {
+				helpMarked(op, flag);
+			}
+			break;
+		case DFLAG:
+			helpDelete((DeleteInfo)u.info, u);
+			break;
+		default:
+			break;
+		}
+	}
+
+	/**
+	 * Method that replaces a child of a node with a compare-and-set on the
+	 * side where the new child belongs
+	 * @param parent : the node
+	 * @param old : the expected child
+	 * @param node : the new child
+	 */
+	private static void casChild(Internal parent, TreeNode old, TreeNode node) {
+		if(node.key < parent.key) {
+			LEFT.compareAndSet(parent, old, node);
+		}else {
+			RIGHT.compareAndSet(parent, old, node);
+		}
+	}
+
+
+	//Traversal methods
+
+	/**
+	 * Method that visits the keys of the tree within a specific range.
+	 * With concurrent updates the keys visited are not an atomic snapshot,
+	 * but every key present during the whole traversal is visited
+	 * @param k1 : the lower bound
+	 * @param k2 : the upper bound
+	 */
+	public void inrange(int k1, int k2) {
+		long startTime = recorder.startTime();
+		ArrayDeque<TreeNode> stack = new ArrayDeque<TreeNode>();
+		int comparisons = 0;
+		int visits = 0;
+
+		// The subtrees still to be visited, the right one is pushed
+		// first so that the leaves are visited in ascending order
+		stack.push(root);
+		while(!stack.isEmpty()) {
+			TreeNode node = stack.pop();
+			visits++;
+
+			if(node instanceof Leaf) {
+				comparisons+=2;
+				if(k1 <= node.key && node.key <= k2) {
+					//System.out.print(node.key + " ");
+				}
+				continue;
+			}
+
+			Internal internal = (Internal)node;
+			TreeNode left = internal.left;
+			TreeNode right = internal.right;
+
+			comparisons+=2;
+			if(k2 >= internal.key) {
+				stack.push(right);
+			}
+			if(k1 < internal.key) {
+				stack.push(left);
+			}
+		}
+
+		this.comparisons = comparisons;
+		recorder.record(OperationRecorder.INRANGE, comparisons, visits, startTime);
+	}
+
+	/**
+	 * Method that prints the keys of the leaves in ascending order,
+	 * iteratively with an explicit stack of the subtrees still to be visited
+	 */
+	public void inorder() {
+		ArrayDeque<TreeNode> stack = new ArrayDeque<TreeNode>();
+		stack.push(root);
+
+		while(!stack.isEmpty()) {
+			TreeNode node = stack.pop();
+			if(node instanceof Internal) {
+				Internal internal = (Internal)node;
+				stack.push(internal.right);
+				stack.push(internal.left);
+			}else if(node.key < INF1) {
+				System.out.print(node.key+"   ");
+			}
+		}
+	}
+
+}
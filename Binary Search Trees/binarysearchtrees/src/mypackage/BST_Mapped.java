@@ -0,0 +1,301 @@
+package mypackage;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+
+/**
+ * This class searches an image of a static BST, saved by the save method
+ * of the BST_Arr class, in place
+ *
+ * The info, left, right and size arrays of the image are read through a
+ * read-only mapping of the file, so opening the tree costs only the check
+ * of the header: nothing is read or copied, and every search brings into
+ * memory only the pages of the nodes it visits. After a restart the tree
+ * is ready at once, and the pages already cached by the operating system
+ * are not even read from the disk.
+ *
+ * The tree cannot be modified, so it is not a SearchTree: like the read-only
+ * indexes, it only provides the searches. A tree that needs updates is
+ * opened with the BST_Arr.open method instead. The mapping is released when the tree
+ * is garbage collected.
+ *
+ * @author Dimitris Petrou | 2018030070 | ece@tuc
+ *
+ */
+public class BST_Mapped implements RangeSearch {
+
+	/**
+	 * A conventional null value that equals to -1
+	 */
+	private static final int NULL = -1;
+
+	/**
+	 * The mapped arrays of the image
+	 */
+	private IntBuffer info;
+	private IntBuffer left;
+	private IntBuffer right;
+	private IntBuffer size;
+
+	/**
+	 * The pos of the root in the arrays
+	 */
+	private int root;
+
+	/**
+	 * The number of nodes stored in the tree
+	 */
+	private int numberOfNodes;
+
+	/**
+	 * A member variable used to track the number of comparisons performed by each method
+	 */
+	private int comparisons;
+
+	/**
+	 * The recorder of the operations, OperationRecorder.NONE if they are not recorded
+	 */
+	private OperationRecorder recorder;
+
+
+	/**
+	 * Class constructor with a String argument
+	 * @param path : the path to an image saved by BST_Arr.save
+	 * @throws IOException if the file cannot be mapped or it is not an image
+	 */
+	public BST_Mapped(String path) throws IOException {
+		try(RandomAccessFile raf = new RandomAccessFile(path, "r")) {
+			// The mappings stay valid after the file is closed
+			IntBuffer[] mapped = BST_Arr.mapImage(raf.getChannel(), FileChannel.MapMode.READ_ONLY);
+
+			this.numberOfNodes = mapped[0].get(3);
+			this.root = mapped[0].get(4);
+			this.info = mapped[1];
+			this.left = mapped[2];
+			this.right = mapped[3];
+			this.size = mapped[4];
+		}
+		this.comparisons = 0;
+		this.recorder = OperationRecorder.NONE;
+	}
+
+	public int getNumberOfNodes() {
+		return this.numberOfNodes;
+	}
+
+	public int getComparisons() {
+		return this.comparisons;
+	}
+
+	public OperationRecorder getRecorder() {
+		return this.recorder;
+	}
+
+	/**
+	 * Method that sets the recorder of the searches of the tree
+	 * @param recorder : the recorder, OperationRecorder.NONE to stop recording
+	 */
+	public void setRecorder(OperationRecorder recorder) {
+		this.recorder = recorder;
+	}
+
+	/**
+	 * Method that searches for a specific key in the tree
+	 * @param key : the key we are searching for
+	 * @return true/false if the key was found or not
+	 */
+	public boolean searchKey(int key) {
+		long startTime = recorder.startTime();
+		int node = this.root;
+		int comparisons = 0;
+		boolean found = false;
+
+		while(node != NULL) {
+			comparisons++;
+			int k = info.get(node);
+			if(k == key) {
+				found = true;
+				break;
+			}
+			node = (key < k) ? left.get(node) : right.get(node);
+		}
+
+		// Every node visited costs one comparison
+		this.comparisons = comparisons;
+		recorder.record(OperationRecorder.SEARCH, comparisons, comparisons, startTime);
+		return found;
+	}
+
+	/**
+	 * Method that visits the keys of the tree within a specific range
+	 * @param k1 : the lower bound
+	 * @param k2 : the upper bound
+	 */
+	public void inrange(int k1, int k2) {
+		long startTime = recorder.startTime();
+		RangeCursor cursor = new RangeCursor(k1, k2);
+		while(cursor.hasNext()) {
+			cursor.nextInt();
+		}
+		this.comparisons = cursor.visits;
+		recorder.record(OperationRecorder.INRANGE, cursor.visits, cursor.visits, startTime);
+	}
+
+	/**
+	 * Method that prints the keys of the tree in an inorder way
+	 */
+	public void inorder() {
+		PrimitiveIterator.OfInt cursor = rangeIterator(Integer.MIN_VALUE, Integer.MAX_VALUE);
+		while(cursor.hasNext()) {
+			System.out.print(cursor.nextInt()+"   ");
+		}
+	}
+
+	public PrimitiveIterator.OfInt rangeIterator(int k1, int k2) {
+		return new RangeCursor(k1, k2);
+	}
+
+	/**
+	 * Cursor over the keys of the tree within a range, with an explicit
+	 * stack of the nodes whose key and right subtree are still to be returned
+	 */
+	private class RangeCursor implements PrimitiveIterator.OfInt {
+
+		private final int k2;
+		private int[] stack;
+		private int top;
+		private int visits;
+
+		private RangeCursor(int k1, int k2) {
+			this.k2 = k2;
+			this.stack = new int[32];
+			this.top = 0;
+			this.visits = 0;
+
+			// Push the path to the first key >= k1, skipping the smaller keys
+			int node = root;
+			while(node != NULL) {
+				visits++;
+				if(k1 <= info.get(node)) {
+					push(node);
+					node = left.get(node);
+				}else {
+					node = right.get(node);
+				}
+			}
+		}
+
+		private void push(int node) {
+			if(top == stack.length) {
+				stack = Arrays.copyOf(stack, 2*top);
+			}
+			stack[top++] = node;
+		}
+
+		public boolean hasNext() {
+			return top > 0 && info.get(stack[top-1]) <= k2;
+		}
+
+		public int nextInt() {
+			if(!hasNext()) {
+				throw new NoSuchElementException();
+			}
+			int node = stack[--top];
+
+			// The next keys are the leftmost path of the right subtree
+			for(int n = right.get(node); n != NULL; n = left.get(n)) {
+				visits++;
+				push(n);
+			}
+			return info.get(node);
+		}
+	}
+
+	private int getSize(int node) {
+		return (node == NULL) ? 0 : size.get(node);
+	}
+
+	/**
+	 * Method that returns the number of keys of the tree that are smaller than a given key
+	 * @param key : the key, which does not have to be in the tree
+	 * @return int : the number of smaller keys
+	 */
+	public int rank(int key) {
+		int node = this.root;
+		int rank = 0;
+		int comparisons = 0;
+
+		while(node != NULL) {
+			comparisons++;
+			if(key <= info.get(node)) {
+				node = left.get(node);
+			}else {
+				rank += getSize(left.get(node)) + 1;
+				node = right.get(node);
+			}
+		}
+
+		this.comparisons = comparisons;
+		return rank;
+	}
+
+	/**
+	 * Method that returns the k-th smallest key of the tree
+	 * @param k : the position of the key in ascending order, starting from 0
+	 * @return int : the key
+	 * @throws IndexOutOfBoundsException if k is not less than the number of nodes
+	 */
+	public int select(int k) {
+		if(k < 0 || k >= numberOfNodes) {
+			throw new IndexOutOfBoundsException("No key at position "+k+" of "+numberOfNodes);
+		}
+		int node = this.root;
+		int comparisons = 0;
+
+		while(true) {
+			comparisons++;
+			int leftSize = getSize(left.get(node));
+			if(k < leftSize) {
+				node = left.get(node);
+			}else if(k == leftSize) {
+				break;
+			}else {
+				k -= leftSize + 1;
+				node = right.get(node);
+			}
+		}
+
+		this.comparisons = comparisons;
+		return info.get(node);
+	}
+
+	/**
+	 * Method that counts the keys within a range with two rank searches
+	 * @param k1 : the lower bound
+	 * @param k2 : the upper bound
+	 * @return int : the number of keys in the range
+	 */
+	public int countInRange(int k1, int k2) {
+		if(k1 > k2) {
+			this.comparisons = 0;
+			return 0;
+		}
+		if(k2 == Integer.MAX_VALUE) {
+			return numberOfNodes - rank(k1);
+		}
+		int upper = rank(k2+1);
+		int comparisons = this.comparisons;
+		int count = upper - rank(k1);
+		this.comparisons += comparisons;
+		return count;
+	}
+
+	public int countInRange(int k1, int k2, int limit) {
+		return Math.min(limit, countInRange(k1, k2));
+	}
+
+}
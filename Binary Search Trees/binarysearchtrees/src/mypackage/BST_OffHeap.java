@@ -0,0 +1,483 @@
+package mypackage;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+
+/**
+ * This class implements a Binary Search Tree like the BST_Arr class,
+ * whose nodes are stored outside of the Java heap
+ *
+ * The nodes are records of a key and the long references to the two
+ * children, stored in direct buffers of a fixed number of nodes each
+ * (the chunks). A node is referenced by a long index: its high bits
+ * select the chunk and its low bits the record in the chunk. So the
+ * tree is not limited to 2^31 nodes, and it grows by allocating a new
+ * chunk, without copying the existing nodes.
+ *
+ * The garbage collector sees only the small array of the chunks and
+ * never scans or moves the nodes, so the size of the tree does not
+ * affect the pauses of the collections.
+ *
+ * Deleted nodes are pushed in an availability stack, linked through
+ * their left references, and reused by the next insertions like in
+ * BST_Arr. The memory of the chunks is returned to the system when
+ * the tree is cleared or garbage collected.
+ *
+ * @author Dimitris Petrou | 2018030070 | ece@tuc
+ *
+ */
+public class BST_OffHeap implements SearchTree, RangeSearch {
+
+	/**
+	 * A conventional null value that equals to -1
+	 */
+	private static final long NULL = -1;
+
+	/**
+	 * The number of bytes of a node: the key and the two references
+	 */
+	private static final int NODE_BYTES = 4 + 8 + 8;
+
+	/**
+	 * The offsets of the fields in a node
+	 */
+	private static final int KEY = 0;
+	private static final int LEFT = 4;
+	private static final int RIGHT = 12;
+
+	/**
+	 * Every chunk holds 2^CHUNK_BITS nodes (20 MB)
+	 */
+	private static final int CHUNK_BITS = 20;
+	private static final long CHUNK_MASK = (1L << CHUNK_BITS) - 1;
+
+	/**
+	 * The chunks of the nodes
+	 */
+	private ByteBuffer[] chunks;
+
+	/**
+	 * The number of chunks allocated
+	 */
+	private int numberOfChunks;
+
+	/**
+	 * The index of the root
+	 */
+	private long root;
+
+	/**
+	 * The top of the availability stack of the deleted nodes
+	 */
+	private long avail;
+
+	/**
+	 * The first index never used, every index after it is free
+	 */
+	private long fresh;
+
+	/**
+	 * The number of nodes stored in the tree
+	 */
+	private long numberOfNodes;
+
+	/**
+	 * A member variable used to track the number of comparisons performed by each method
+	 */
+	private int comparisons;
+
+	/**
+	 * The recorder of the operations, OperationRecorder.NONE if they are not recorded
+	 */
+	private OperationRecorder recorder;
+
+
+	/**
+	 * Class constructor, the tree starts empty without any chunk
+	 */
+	public BST_OffHeap() {
+		this.chunks = new ByteBuffer[8];
+		this.recorder = OperationRecorder.NONE;
+		clear();
+	}
+
+	/**
+	 * Method that removes all the nodes and drops the chunks,
+	 * whose memory is returned when they are garbage collected
+	 */
+	public void clear() {
+		Arrays.fill(chunks, null);
+		this.numberOfChunks = 0;
+		this.root = NULL;
+		this.avail = NULL;
+		this.fresh = 0;
+		this.numberOfNodes = 0;
+		this.comparisons = 0;
+	}
+
+	/**
+	 * Method that returns the number of nodes stored in the tree
+	 * @return long : the number of nodes
+	 */
+	public long getNumberOfNodes() {
+		return this.numberOfNodes;
+	}
+
+	/**
+	 * Method that returns the number of bytes allocated outside of the heap
+	 * @return long : the bytes of all the chunks
+	 */
+	public long getAllocatedBytes() {
+		return (long)numberOfChunks * NODE_BYTES << CHUNK_BITS;
+	}
+
+	public int getComparisons() {
+		return this.comparisons;
+	}
+
+	public OperationRecorder getRecorder() {
+		return this.recorder;
+	}
+
+	/**
+	 * Method that sets the recorder of the operations of the tree
+	 * @param recorder : the recorder, OperationRecorder.NONE to stop recording
+	 */
+	public void setRecorder(OperationRecorder recorder) {
+		this.recorder = recorder;
+	}
+
+
+	//Node methods
+
+
+	private ByteBuffer chunk(long node) {
+		return chunks[(int)(node >>> CHUNK_BITS)];
+	}
+
+	private static int offset(long node) {
+		return (int)(node & CHUNK_MASK) * NODE_BYTES;
+	}
+
+	public int getInfo(long node) {
+		return chunk(node).getInt(offset(node) + KEY);
+	}
+
+	public long getLeftChild(long node) {
+		return chunk(node).getLong(offset(node) + LEFT);
+	}
+
+	public long getRightChild(long node) {
+		return chunk(node).getLong(offset(node) + RIGHT);
+	}
+
+	public void setLeftChild(long node, long child) {
+		chunk(node).putLong(offset(node) + LEFT, child);
+	}
+
+	public void setRightChild(long node, long child) {
+		chunk(node).putLong(offset(node) + RIGHT, child);
+	}
+
+	/**
+	 * Method that stores a node at a specific index
+	 * @param node : the index at which the node will be stored
+	 * @param key : the key of the node
+	 * @param lft : the reference to the left child
+	 * @param rgt : the reference to the right child
+	 */
+	public void storeNode(long node, int key, long lft, long rgt) {
+		ByteBuffer chunk = chunk(node);
+		int offset = offset(node);
+		chunk.putInt(offset + KEY, key);
+		chunk.putLong(offset + LEFT, lft);
+		chunk.putLong(offset + RIGHT, rgt);
+	}
+
+	/**
+	 * Method that returns the index of a free node. The top of the
+	 * availability stack is used first, else the first index never used,
+	 * allocating a new chunk if needed
+	 * @return long : the index of the node
+	 */
+	private long useAvailNode() {
+		if(avail != NULL) {
+			long node = avail;
+			avail = getLeftChild(node);
+			return node;
+		}
+		ensureCapacity(fresh+1);
+		return fresh++;
+	}
+
+	/**
+	 * Method that pushes the node of a deleted key in the availability stack
+	 * @param node : the index of the node
+	 */
+	private void freeNode(long node) {
+		storeNode(node, 0, avail, NULL);
+		avail = node;
+	}
+
+	/**
+	 * Method that allocates the chunks needed to store a number of nodes
+	 * @param nodes : the number of nodes
+	 */
+	private void ensureCapacity(long nodes) {
+		long needed = (nodes + CHUNK_MASK) >>> CHUNK_BITS;
+		if(needed > Integer.MAX_VALUE) {
+			throw new IllegalStateException("Too many nodes for the chunks of the tree");
+		}
+		while(numberOfChunks < needed) {
+			if(numberOfChunks == chunks.length) {
+				chunks = Arrays.copyOf(chunks, 2*chunks.length);
+			}
+			chunks[numberOfChunks++] = ByteBuffer.allocateDirect(NODE_BYTES << CHUNK_BITS).order(ByteOrder.nativeOrder());
+		}
+	}
+
+
+	//Tree methods
+
+
+	/**
+	 * Method that inserts a key in the tree. Like in BST_Arr, the equal
+	 * keys are inserted in the right subtree
+	 * @param key : the key to be inserted
+	 */
+	public void insertKey(int key) {
+		long startTime = recorder.startTime();
+		long node = useAvailNode();
+		int comparisons = 0;
+		int visits = 0;
+		storeNode(node, key, NULL, NULL);
+		this.numberOfNodes++;
+
+		if(this.root == NULL) {
+			this.root = node;
+			this.comparisons = 0;
+			recorder.record(OperationRecorder.INSERT, 0, 0, startTime);
+			return;
+		}
+
+		long x = this.root;
+		while(true) {
+			visits++;
+			comparisons++;
+			if(key < getInfo(x)) {
+				long child = getLeftChild(x);
+				if(child == NULL) {
+					setLeftChild(x, node);
+					break;
+				}
+				x = child;
+			}else {
+				long child = getRightChild(x);
+				if(child == NULL) {
+					setRightChild(x, node);
+					break;
+				}
+				x = child;
+			}
+		}
+
+		this.comparisons = comparisons;
+		recorder.record(OperationRecorder.INSERT, comparisons, visits, startTime);
+	}
+
+	/**
+	 * Method that deletes a key from the tree. A node with two children
+	 * takes the key of its inorder successor, which is removed instead
+	 * @param key : the key to be deleted
+	 */
+	public void deleteKey(int key) {
+		long startTime = recorder.startTime();
+		int comparisons = 0;
+		int visits = 0;
+		long parent = NULL;
+		long x = this.root;
+
+		while(x != NULL && getInfo(x) != key) {
+			comparisons+=2;
+			visits++;
+			parent = x;
+			x = (key < getInfo(x)) ? getLeftChild(x) : getRightChild(x);
+		}
+
+		if(x == NULL) {
+			this.comparisons = comparisons;
+			recorder.record(OperationRecorder.DELETE, comparisons, visits, startTime);
+			return;
+		}
+		comparisons++;
+		visits++;
+
+		if(getLeftChild(x) != NULL && getRightChild(x) != NULL) {
+			long successorParent = x;
+			long successor = getRightChild(x);
+			visits++;
+
+			while(getLeftChild(successor) != NULL) {
+				successorParent = successor;
+				successor = getLeftChild(successor);
+				visits++;
+			}
+
+			chunk(x).putInt(offset(x) + KEY, getInfo(successor));
+			if(successorParent == x) {
+				setRightChild(successorParent, getRightChild(successor));
+			}else {
+				setLeftChild(successorParent, getRightChild(successor));
+			}
+			freeNode(successor);
+		}else {
+			long child = (getLeftChild(x) != NULL) ? getLeftChild(x) : getRightChild(x);
+
+			if(parent == NULL) {
+				this.root = child;
+			}else if(getLeftChild(parent) == x) {
+				setLeftChild(parent, child);
+			}else {
+				setRightChild(parent, child);
+			}
+			freeNode(x);
+		}
+
+		this.numberOfNodes--;
+		this.comparisons = comparisons;
+		recorder.record(OperationRecorder.DELETE, comparisons, visits, startTime);
+	}
+
+	/**
+	 * Method that replaces the contents of the tree with a perfectly
+	 * balanced tree built from keys given in ascending order. The key
+	 * at position i is stored at the node with index i
+	 * @param sortedKeys : the keys in ascending order
+	 */
+	public void bulkLoad(int[] sortedKeys) {
+		clear();
+		ensureCapacity(sortedKeys.length);
+		this.fresh = sortedKeys.length;
+		this.numberOfNodes = sortedKeys.length;
+		this.root = bulkLoadRec(sortedKeys, 0, sortedKeys.length-1);
+	}
+
+	/**
+	 * Recursive method that builds a balanced subtree from a range of the sorted keys
+	 * @param sortedKeys : the keys in ascending order
+	 * @param lo : the first position of the range
+	 * @param hi : the last position of the range
+	 * @return long : the index of the root of the subtree
+	 */
+	private long bulkLoadRec(int[] sortedKeys, int lo, int hi) {
+		if(lo > hi) {
+			return NULL;
+		}
+
+		int mid = (lo + hi) >>> 1;
+		storeNode(mid, sortedKeys[mid], bulkLoadRec(sortedKeys, lo, mid-1), bulkLoadRec(sortedKeys, mid+1, hi));
+		return mid;
+	}
+
+	public boolean searchKey(int key) {
+		long startTime = recorder.startTime();
+		long x = this.root;
+		int comparisons = 0;
+		boolean found = false;
+
+		while(x != NULL) {
+			comparisons++;
+			int k = getInfo(x);
+			if(k == key) {
+				found = true;
+				break;
+			}
+			x = (key < k) ? getLeftChild(x) : getRightChild(x);
+		}
+
+		// Every node visited costs one comparison
+		this.comparisons = comparisons;
+		recorder.record(OperationRecorder.SEARCH, comparisons, comparisons, startTime);
+		return found;
+	}
+
+	public void inrange(int k1, int k2) {
+		long startTime = recorder.startTime();
+		RangeCursor cursor = new RangeCursor(k1, k2);
+		while(cursor.hasNext()) {
+			cursor.nextInt();
+		}
+		this.comparisons = cursor.visits;
+		recorder.record(OperationRecorder.INRANGE, cursor.visits, cursor.visits, startTime);
+	}
+
+	public void inorder() {
+		PrimitiveIterator.OfInt cursor = rangeIterator(Integer.MIN_VALUE, Integer.MAX_VALUE);
+		while(cursor.hasNext()) {
+			System.out.print(cursor.nextInt()+"   ");
+		}
+	}
+
+	public PrimitiveIterator.OfInt rangeIterator(int k1, int k2) {
+		return new RangeCursor(k1, k2);
+	}
+
+	/**
+	 * Cursor over the keys of the tree within a range, with an explicit
+	 * stack of the nodes whose key and right subtree are still to be returned
+	 */
+	private class RangeCursor implements PrimitiveIterator.OfInt {
+
+		private final int k2;
+		private long[] stack;
+		private int top;
+		private int visits;
+
+		private RangeCursor(int k1, int k2) {
+			this.k2 = k2;
+			this.stack = new long[32];
+			this.top = 0;
+			this.visits = 0;
+
+			// Push the path to the first key >= k1, skipping the smaller keys
+			long node = root;
+			while(node != NULL) {
+				visits++;
+				if(k1 <= getInfo(node)) {
+					push(node);
+					node = getLeftChild(node);
+				}else {
+					node = getRightChild(node);
+				}
+			}
+		}
+
+		private void push(long node) {
+			if(top == stack.length) {
+				stack = Arrays.copyOf(stack, 2*top);
+			}
+			stack[top++] = node;
+		}
+
+		public boolean hasNext() {
+			return top > 0 && getInfo(stack[top-1]) <= k2;
+		}
+
+		public int nextInt() {
+			if(!hasNext()) {
+				throw new NoSuchElementException();
+			}
+			long node = stack[--top];
+
+			// The next keys are the leftmost path of the right subtree
+			for(long n = getRightChild(node); n != NULL; n = getLeftChild(n)) {
+				visits++;
+				push(n);
+			}
+			return getInfo(node);
+		}
+	}
+
+}
@@ -0,0 +1,644 @@
+package mypackage;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * This class implements a BST stored in arrays, like the BST_Arr class,
+ * whose readers never block and always see a consistent version of the tree
+ *
+ * The tree is persistent: a published version is never modified. A writer
+ * copies the nodes on the path from the root to the nodes it changes into
+ * new fields at the end of the arrays, so the new version shares all the
+ * other nodes with the previous ones. When the writer is done it publishes
+ * the new version (the arrays and the root) atomically, with a new epoch.
+ *
+ * The nodes created by the writer since the last publication are not seen
+ * by any reader yet, so a batch of updates changes them in place and only
+ * copies the nodes of the published versions.
+ *
+ * A reader takes the current version once and performs its whole search on
+ * it, without any lock. An old version, and the arrays it needs, is freed by
+ * the garbage collector when no reader refers to it any more. When most of
+ * the fields of the arrays belong only to old versions, the writer compacts
+ * the tree into new arrays as a balanced tree.
+ *
+ * The writers are serialized with a lock, which the readers never take.
+ *
+ * @author Dimitris Petrou | 2018030070 | ece@tuc
+ *
+ */
+public class BST_Snapshot implements SearchTree {
+
+	/**
+	 * Static variable used as null for the references
+	 */
+	public static final int NULL = -1;
+
+	/**
+	 * The initial capacity of the arrays
+	 */
+	private static final int DEFAULT_CAPACITY = 16;
+
+	/**
+	 * The number of dead fields under which the arrays are not compacted
+	 */
+	private static final int MIN_COMPACTION = 1024;
+
+	/**
+	 * An immutable version of the tree. The fields reachable from its root
+	 * are never modified, so it can be searched by any number of threads
+	 */
+	public static final class Snapshot {
+
+		private final int[] info;
+		private final int[] left;
+		private final int[] right;
+		private final int root;
+		private final int numberOfNodes;
+		private final long epoch;
+
+		private Snapshot(int[] info, int[] left, int[] right, int root, int numberOfNodes, long epoch) {
+			this.info = info;
+			this.left = left;
+			this.right = right;
+			this.root = root;
+			this.numberOfNodes = numberOfNodes;
+			this.epoch = epoch;
+		}
+
+		public int getNumberOfNodes() {
+			return this.numberOfNodes;
+		}
+
+		/**
+		 * Method that returns the epoch of the version, the versions
+		 * published by the writers have increasing epochs
+		 * @return long : the epoch
+		 */
+		public long getEpoch() {
+			return this.epoch;
+		}
+
+		/**
+		 * Method that searches for a key in this version of the tree
+		 * @param key : the key we are searching for
+		 * @return true/false if the key was found or not
+		 */
+		public boolean searchKey(int key) {
+			int node = root;
+			while(node != NULL) {
+				int k = info[node];
+				if(k == key) {
+					return true;
+				}
+				node = (key < k) ? left[node] : right[node];
+			}
+			return false;
+		}
+
+		/**
+		 * Method that returns the keys of this version within a range in ascending order
+		 * @param a : the lower bound
+		 * @param b : the upper bound
+		 * @return int[] : the keys found
+		 */
+		public int[] inrangeToArray(int a, int b) {
+			int[] keys = new int[16];
+			int found = 0;
+			int[] stack = new int[64];
+			int top = 0;
+			int node = root;
+
+			while(node != NULL || top > 0) {
+				while(node != NULL) {
+					if(a < info[node]) {
+						if(top == stack.length) {
+							stack = Arrays.copyOf(stack, 2*top);
+						}
+						stack[top++] = node;
+						node = left[node];
+					}else if(a == info[node]) {
+						if(top == stack.length) {
+							stack = Arrays.copyOf(stack, 2*top);
+						}
+						stack[top++] = node;
+						node = NULL;
+					}else {
+						node = right[node];
+					}
+				}
+				if(top == 0) {
+					break;
+				}
+				node = stack[--top];
+				if(info[node] > b) {
+					break;
+				}
+				if(found == keys.length) {
+					keys = Arrays.copyOf(keys, 2*found);
+				}
+				keys[found++] = info[node];
+				node = right[node];
+			}
+			return Arrays.copyOf(keys, found);
+		}
+
+		/**
+		 * Method that returns all the keys of this version in ascending order
+		 * @return int[] : the keys
+		 */
+		public int[] inorderToArray() {
+			return inrangeToArray(Integer.MIN_VALUE, Integer.MAX_VALUE);
+		}
+	}
+
+	/**
+	 * The version of the tree seen by the readers
+	 */
+	private final AtomicReference<Snapshot> current;
+
+	//The state of the writer, guarded by the lock of the object
+
+	/**
+	 * The arrays of the writer, the fields before frozen are shared with published versions
+	 */
+	private int[] info;
+	private int[] left;
+	private int[] right;
+
+	/**
+	 * The root of the version under construction
+	 */
+	private int root;
+
+	/**
+	 * The number of fields used in the arrays, new nodes are stored after them
+	 */
+	private int used;
+
+	/**
+	 * The fields before this position are part of published versions and must not change
+	 */
+	private int frozen;
+
+	/**
+	 * The number of nodes of the version under construction
+	 */
+	private int numberOfNodes;
+
+	/**
+	 * The number of used fields that are not reachable from the root any more
+	 */
+	private int dead;
+
+	/**
+	 * The epoch of the last published version
+	 */
+	private long epoch;
+
+	/**
+	 * The path followed by the last update, reused by the next ones
+	 */
+	private int[] path;
+
+	/**
+	 * The number of comparisons of the last search. With many threads it
+	 * holds the value of any recent search, use a recorder instead
+	 */
+	private int comparisons;
+
+	/**
+	 * The recorder of the operations, OperationRecorder.NONE if they are not recorded
+	 */
+	private OperationRecorder recorder;
+
+
+	/**
+	 * Class constructor, the tree starts empty
+	 */
+	public BST_Snapshot() {
+		this.info = new int[DEFAULT_CAPACITY];
+		this.left = new int[DEFAULT_CAPACITY];
+		this.right = new int[DEFAULT_CAPACITY];
+		this.root = NULL;
+		this.used = 0;
+		this.frozen = 0;
+		this.numberOfNodes = 0;
+		this.dead = 0;
+		this.epoch = 0;
+		this.path = new int[64];
+		this.comparisons = 0;
+		this.recorder = OperationRecorder.NONE;
+
+		this.current = new AtomicReference<Snapshot>(new Snapshot(info, left, right, NULL, 0, 0));
+	}
+
+	public int getComparisons() {
+		return this.comparisons;
+	}
+
+	/**
+	 * Method that removes all the keys and publishes the empty version,
+	 * the readers of older versions are not affected
+	 */
+	public synchronized void clear() {
+		rebuild(new int[0]);
+		publish();
+	}
+
+	public OperationRecorder getRecorder() {
+		return this.recorder;
+	}
+
+	/**
+	 * Method that sets the recorder of the searches of the tree,
+	 * the recorder must be thread-safe if the tree is shared
+	 * @param recorder : the recorder, OperationRecorder.NONE to stop recording
+	 */
+	public void setRecorder(OperationRecorder recorder) {
+		this.recorder = recorder;
+	}
+
+	/**
+	 * Method that returns the current version of the tree. A reader that
+	 * needs many consistent searches keeps the snapshot and uses its methods
+	 * @return Snapshot : the current version
+	 */
+	public Snapshot snapshot() {
+		return current.get();
+	}
+
+
+	//Reader methods
+
+	/**
+	 * Method that searches for a key in the current version of the tree without blocking
+	 * @param key : the key we are searching for
+	 * @return true/false if the key was found or not
+	 */
+	public boolean searchKey(int key) {
+		long startTime = recorder.startTime();
+		Snapshot s = current.get();
+		int[] info = s.info;
+		int[] left = s.left;
+		int[] right = s.right;
+		int node = s.root;
+		int comparisons = 0;
+		boolean found = false;
+
+		while(node != NULL) {
+			comparisons++;
+			int k = info[node];
+			if(k == key) {
+				found = true;
+				break;
+			}
+			node = (key < k) ? left[node] : right[node];
+		}
+
+		this.comparisons = comparisons;
+		recorder.record(OperationRecorder.SEARCH, comparisons, comparisons, startTime);
+		return found;
+	}
+
+	/**
+	 * Method that visits the keys of the current version within a range
+	 * without blocking and without storing them. Every node visited is
+	 * compared once with the bound that decides where to go next
+	 * @param k1 : the lower bound
+	 * @param k2 : the upper bound
+	 */
+	public void inrange(int k1, int k2) {
+		long startTime = recorder.startTime();
+		Snapshot s = current.get();
+		int[] info = s.info;
+		int[] left = s.left;
+		int[] right = s.right;
+		int[] stack = new int[64];
+		int top = 0;
+		int node = s.root;
+		int comparisons = 0;
+		int visits = 0;
+
+		while(true) {
+			// Push the path to the first key >= k1, skipping the smaller keys
+			while(node != NULL) {
+				visits++;
+				comparisons++;
+				if(k1 <= info[node]) {
+					if(top == stack.length) {
+						stack = Arrays.copyOf(stack, 2*top);
+					}
+					stack[top++] = node;
+					node = left[node];
+				}else {
+					node = right[node];
+				}
+			}
+			if(top == 0) {
+				break;
+			}
+			node = stack[--top];
+			comparisons++;
+			if(info[node] > k2) {
+				break;
+			}
+			//System.out.print(info[node] + " ");
+			node = right[node];
+		}
+
+		this.comparisons = comparisons;
+		recorder.record(OperationRecorder.INRANGE, comparisons, visits, startTime);
+	}
+
+	public void inorder() {
+		for(int key : current.get().inorderToArray()) {
+			System.out.print(key+"   ");
+		}
+	}
+
+
+	//Writer methods
+
+	/**
+	 * Method that inserts a key and publishes the new version
+	 * @param key : the key to be inserted
+	 */
+	public synchronized void insertKey(int key) {
+		insert(key);
+		publish();
+	}
+
+	/**
+	 * Method that deletes a key and publishes the new version
+	 * @param key : the key to be deleted
+	 */
+	public synchronized void deleteKey(int key) {
+		delete(key);
+		publish();
+	}
+
+	/**
+	 * Method that applies a batch of updates and publishes only the final
+	 * version, so the readers never see a part of the batch. The nodes created
+	 * within the batch are changed in place, so a batch costs much less than
+	 * the same updates published one by one
+	 * @param insertKeys : the keys to be inserted
+	 * @param deleteKeys : the keys to be deleted, after the insertions
+	 */
+	public synchronized void applyBatch(int[] insertKeys, int[] deleteKeys) {
+		for(int key : insertKeys) {
+			insert(key);
+		}
+		for(int key : deleteKeys) {
+			delete(key);
+		}
+		publish();
+	}
+
+	/**
+	 * Method that replaces the tree with a balanced tree of sorted keys
+	 * and publishes it. Like insertKey, the repeated keys are stored once
+	 * @param sortedKeys : the keys in ascending order, they may repeat
+	 */
+	public synchronized void bulkLoad(int[] sortedKeys) {
+		rebuild(sortedKeys);
+		publish();
+	}
+
+	/**
+	 * Method that publishes the version under construction. The arrays are
+	 * compacted first if most of their fields are dead
+	 */
+	private void publish() {
+		if(dead > MIN_COMPACTION && dead > numberOfNodes) {
+			rebuild(keys());
+		}
+		epoch++;
+		current.set(new Snapshot(info, left, right, root, numberOfNodes, epoch));
+		frozen = used;
+	}
+
+	/**
+	 * Method that returns the keys of the version under construction in ascending order
+	 * @return int[] : the keys
+	 */
+	private int[] keys() {
+		return new Snapshot(info, left, right, root, numberOfNodes, epoch).inorderToArray();
+	}
+
+	/**
+	 * Method that stores the sorted keys as a balanced tree in new arrays,
+	 * the key at position i of the distinct keys is stored at the field i
+	 * @param sortedKeys : the keys in ascending order, the repeated ones are stored once
+	 */
+	private void rebuild(int[] sortedKeys) {
+		sortedKeys = SearchTree.distinctKeys(sortedKeys);
+		int n = sortedKeys.length;
+		int capacity = Math.max(DEFAULT_CAPACITY, 2*n);
+
+		this.info = Arrays.copyOf(sortedKeys, capacity);
+		this.left = new int[capacity];
+		this.right = new int[capacity];
+		this.root = buildRec(0, n-1);
+		this.used = n;
+		this.frozen = 0;
+		this.numberOfNodes = n;
+		this.dead = 0;
+	}
+
+	/**
+	 * Recursive method that links the fields of a range of sorted keys as a
+	 * balanced subtree, the middle field becoming the root of the subtree
+	 * @param lo : the first field of the range
+	 * @param hi : the last field of the range
+	 * @return int : the root of the subtree
+	 */
+	private int buildRec(int lo, int hi) {
+		if(lo > hi) {
+			return NULL;
+		}
+		int mid = (lo + hi) >>> 1;
+		left[mid] = buildRec(lo, mid-1);
+		right[mid] = buildRec(mid+1, hi);
+		return mid;
+	}
+
+	/**
+	 * Method that stores a new node after the used fields, the arrays
+	 * are copied to double capacity when they are full. The published
+	 * versions keep the old arrays
+	 * @param key : the key of the node
+	 * @param lft : the left child
+	 * @param rgt : the right child
+	 * @return int : the field of the node
+	 */
+	private int newNode(int key, int lft, int rgt) {
+		if(used == info.length) {
+			int capacity = 2*info.length;
+			info = Arrays.copyOf(info, capacity);
+			left = Arrays.copyOf(left, capacity);
+			right = Arrays.copyOf(right, capacity);
+		}
+		info[used] = key;
+		left[used] = lft;
+		right[used] = rgt;
+		return used++;
+	}
+
+	/**
+	 * Method that returns a node that can be changed: the node itself if it
+	 * was created after the last publication, else a copy of it
+	 * @param node : the node
+	 * @return int : the node to be changed
+	 */
+	private int writable(int node) {
+		if(node >= frozen) {
+			return node;
+		}
+		dead++;
+		return newNode(info[node], left[node], right[node]);
+	}
+
+	/**
+	 * Method that stores a node in the path followed by an update
+	 * @param depth : the position in the path
+	 * @param node : the node
+	 */
+	private void pushPath(int depth, int node) {
+		if(depth == path.length) {
+			path = Arrays.copyOf(path, 2*depth);
+		}
+		path[depth] = node;
+	}
+
+	/**
+	 * Method that links a changed child to the nodes of a path, from the
+	 * bottom to the root. Every node of the path that belongs to a published
+	 * version is copied, the others are changed in place. Once a node keeps
+	 * its field the nodes above it do not change.
+	 * @param depth : the number of nodes in the path
+	 * @param child : the new child of the last node of the path
+	 * @param original : the child it replaces
+	 */
+	private void relink(int depth, int child, int original) {
+		for(int i=depth-1; i>=0; i--) {
+			int node = path[i];
+			if(child == original) {
+				return;
+			}
+			int copy = writable(node);
+			if(left[copy] == original) {
+				left[copy] = child;
+			}else {
+				right[copy] = child;
+			}
+			original = node;
+			child = copy;
+		}
+		root = child;
+	}
+
+	/**
+	 * Method that inserts a key in the version under construction,
+	 * duplicate keys are ignored
+	 * @param key : the key to be inserted
+	 */
+	private void insert(int key) {
+		int depth = 0;
+		int node = root;
+
+		while(node != NULL) {
+			if(info[node] == key) {
+				return;
+			}
+			pushPath(depth++, node);
+			node = (key < info[node]) ? left[node] : right[node];
+		}
+
+		int leaf = newNode(key, NULL, NULL);
+		numberOfNodes++;
+
+		if(depth == 0) {
+			root = leaf;
+			return;
+		}
+
+		int parent = writable(path[depth-1]);
+		if(key < info[parent]) {
+			left[parent] = leaf;
+		}else {
+			right[parent] = leaf;
+		}
+		relink(depth-1, parent, path[depth-1]);
+	}
+
+	/**
+	 * Method that deletes a key from the version under construction.
+	 * A node with two children takes the key of its inorder successor,
+	 * which is removed from the right subtree instead
+	 * @param key : the key to be deleted
+	 */
+	private void delete(int key) {
+		int depth = 0;
+		int node = root;
+
+		while(node != NULL && info[node] != key) {
+			pushPath(depth++, node);
+			node = (key < info[node]) ? left[node] : right[node];
+		}
+		if(node == NULL) {
+			return;
+		}
+		numberOfNodes--;
+		dead++;
+
+		if(left[node] != NULL && right[node] != NULL) {
+			int target = depth;
+			pushPath(depth++, node);
+
+			int successor = right[node];
+			while(left[successor] != NULL) {
+				pushPath(depth++, successor);
+				successor = left[successor];
+			}
+
+			// The parent of the successor takes its right child, the nodes up to
+			// the deleted one are copied if needed and the deleted one takes the key
+			int child = right[successor];
+			int original = successor;
+			for(int i=depth-1; i>=target; i--) {
+				int copy = path[i];
+				if(child != original || i == target) {
+					copy = writable(path[i]);
+					if(left[copy] == original) {
+						left[copy] = child;
+					}else if(right[copy] == original) {
+						right[copy] = child;
+					}
+				}
+				original = path[i];
+				child = copy;
+			}
+			info[child] = info[successor];
+			relink(target, child, node);
+			return;
+		}
+
+		int child = (left[node] != NULL) ? left[node] : right[node];
+
+		if(depth == 0) {
+			root = child;
+			return;
+		}
+
+		int parent = writable(path[depth-1]);
+		if(left[parent] == node) {
+			left[parent] = child;
+		}else {
+			right[parent] = child;
+		}
+		relink(depth-1, parent, path[depth-1]);
+	}
+
+}
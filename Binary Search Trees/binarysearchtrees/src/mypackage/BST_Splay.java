@@ -0,0 +1,345 @@
+package mypackage;
+import java.util.ArrayDeque;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+
+/**
+ * Class that implements a splay tree with dynamic memory allocation
+ *
+ * Every search, insertion and deletion moves the key it accessed (or the
+ * last node visited, if the key is not in the tree) to the root, with
+ * rotations that also roughly halve the depth of the nodes on the path.
+ * So the keys that are accessed often stay close to the root, and under
+ * a skewed access pattern the searches visit far fewer nodes than in a
+ * balanced tree, while any sequence of operations still costs amortized
+ * O(log n) per operation.
+ *
+ * The splaying is done top-down in a single pass, without recursion or
+ * parent references, so even a degenerate tree is handled.
+ *
+ * @author Dimitris Petrou | 2018030070 | ece@tuc
+ *
+ * @from Self-Adjusting Binary Search Trees (Sleator, Tarjan)
+ *
+ */
+public class BST_Splay implements SearchTree, RangeSearch {
+
+	private Node root;
+	private int comparisons;
+
+	/**
+	 * The number of nodes stored in the tree
+	 */
+	private int numberOfNodes;
+
+	/**
+	 * A node used by the splay method to collect the left and the
+	 * right trees, reused by all the operations
+	 */
+	private Node header;
+
+	/**
+	 * The recorder of the operations, OperationRecorder.NONE if they are not recorded
+	 */
+	private OperationRecorder recorder;
+
+	public BST_Splay() {
+		this.root = null;
+		this.comparisons = 0;
+		this.numberOfNodes = 0;
+		this.header = new Node(0);
+		this.recorder = OperationRecorder.NONE;
+	}
+
+	public int getComparisons() {
+		return this.comparisons;
+	}
+
+	/**
+	 * Method that removes all the keys of the tree
+	 */
+	public void clear() {
+		this.root = null;
+		this.numberOfNodes = 0;
+		this.comparisons = 0;
+	}
+
+	public int getNumberOfNodes() {
+		return this.numberOfNodes;
+	}
+
+	public OperationRecorder getRecorder() {
+		return this.recorder;
+	}
+
+	/**
+	 * Method that sets the recorder of the operations of the tree
+	 * @param recorder : the recorder, OperationRecorder.NONE to stop recording
+	 */
+	public void setRecorder(OperationRecorder recorder) {
+		this.recorder = recorder;
+	}
+
+	/**
+	 * Method that splays a key to the root of a subtree, top-down.
+	 *
+	 * Moving down from the root, the nodes smaller than the key are linked
+	 * in a left tree and the nodes greater than the key in a right tree.
+	 * When two steps go the same way (zig-zig) the first node is rotated
+	 * before it is linked. In the end the last node visited becomes the
+	 * root, with the left and the right tree as its subtrees.
+	 *
+	 * The comparisons performed are added to the comparisons member variable
+	 * @param t : the root of the subtree, not null
+	 * @param key : the key
+	 * @return Node : the new root, which holds the key if it is in the subtree
+	 */
+	private Node splay(Node t, int key) {
+		Node l = header;
+		Node r = header;
+		header.setLeft(null);
+		header.setRight(null);
+
+		while(true) {
+			this.comparisons++;
+			if(key < t.getKey()) {
+				if(t.getLeft() == null) {
+					break;
+				}
+				this.comparisons++;
+				if(key < t.getLeft().getKey()) {
+					/* rotate right */
+					Node y = t.getLeft();
+					t.setLeft(y.getRight());
+					y.setRight(t);
+					t = y;
+					if(t.getLeft() == null) {
+						break;
+					}
+				}
+				/* link right */
+				r.setLeft(t);
+				r = t;
+				t = t.getLeft();
+			}else if(key > t.getKey()) {
+				if(t.getRight() == null) {
+					break;
+				}
+				this.comparisons++;
+				if(key > t.getRight().getKey()) {
+					/* rotate left */
+					Node y = t.getRight();
+					t.setRight(y.getLeft());
+					y.setLeft(t);
+					t = y;
+					if(t.getRight() == null) {
+						break;
+					}
+				}
+				/* link left */
+				l.setRight(t);
+				l = t;
+				t = t.getRight();
+			}else {
+				break;
+			}
+		}
+
+		/* assemble */
+		l.setRight(t.getLeft());
+		r.setLeft(t.getRight());
+		t.setLeft(header.getRight());
+		t.setRight(header.getLeft());
+		return t;
+	}
+
+	/**
+	 * Method that inserts a key in the tree. The key is splayed first and
+	 * the new node becomes the root, with the splayed tree split around
+	 * it. Duplicate keys are ignored.
+	 * @param key : the key to be inserted
+	 */
+	public void insertKey(int key) {
+		long startTime = recorder.startTime();
+		this.comparisons = 0;
+
+		if(root == null) {
+			root = new Node(key);
+			numberOfNodes++;
+			recorder.record(OperationRecorder.INSERT, 0, 0, startTime);
+			return;
+		}
+
+		root = splay(root, key);
+		if(root.getKey() != key) {
+			Node node = new Node(key);
+			if(key < root.getKey()) {
+				node.setLeft(root.getLeft());
+				node.setRight(root);
+				root.setLeft(null);
+			}else {
+				node.setRight(root.getRight());
+				node.setLeft(root);
+				root.setRight(null);
+			}
+			root = node;
+			numberOfNodes++;
+		}
+
+		recorder.record(OperationRecorder.INSERT, comparisons, comparisons, startTime);
+	}
+
+	/**
+	 * Method that deletes a key from the tree. The key is splayed to the
+	 * root and replaced by the join of its subtrees: the greatest key of
+	 * the left subtree is splayed to its root, which has no right child,
+	 * and the right subtree is attached there
+	 * @param key : the key to be deleted
+	 */
+	public void deleteKey(int key) {
+		long startTime = recorder.startTime();
+		this.comparisons = 0;
+
+		if(root != null) {
+			root = splay(root, key);
+			if(root.getKey() == key) {
+				if(root.getLeft() == null) {
+					root = root.getRight();
+				}else {
+					Node right = root.getRight();
+					root = splay(root.getLeft(), key);
+					root.setRight(right);
+				}
+				numberOfNodes--;
+			}
+		}
+
+		recorder.record(OperationRecorder.DELETE, comparisons, comparisons, startTime);
+	}
+
+	/**
+	 * Method that searches for a key, which is splayed to the root
+	 * @param key : the key we are searching for
+	 * @return true/false if the key was found or not
+	 */
+	public boolean searchKey(int key) {
+		long startTime = recorder.startTime();
+		this.comparisons = 0;
+		boolean found = false;
+
+		if(root != null) {
+			root = splay(root, key);
+			found = (root.getKey() == key);
+		}
+
+		recorder.record(OperationRecorder.SEARCH, comparisons, comparisons, startTime);
+		return found;
+	}
+
+	/**
+	 * Method that replaces the contents of the tree with a perfectly
+	 * balanced tree built from keys given in ascending order.
+	 * Like insertKey, the repeated keys are stored once
+	 * @param sortedKeys : the keys in ascending order, they may repeat
+	 */
+	public void bulkLoad(int[] sortedKeys) {
+		int[] keys = SearchTree.distinctKeys(sortedKeys);
+		this.comparisons = 0;
+		this.numberOfNodes = keys.length;
+		root = bulkLoadRec(keys, 0, keys.length-1);
+	}
+
+	/**
+	 * Recursive method that builds a balanced subtree from a range of the sorted keys
+	 * @param sortedKeys : the keys in ascending order
+	 * @param lo : the first position of the range
+	 * @param hi : the last position of the range
+	 * @return Node : the root of the subtree
+	 */
+	private Node bulkLoadRec(int[] sortedKeys, int lo, int hi) {
+		if(lo > hi) {
+			return null;
+		}
+
+		int mid = (lo + hi) >>> 1;
+		Node node = new Node(sortedKeys[mid]);
+		node.setLeft(bulkLoadRec(sortedKeys, lo, mid-1));
+		node.setRight(bulkLoadRec(sortedKeys, mid+1, hi));
+		return node;
+	}
+
+	/**
+	 * Method that visits the keys of the tree within a range. The tree
+	 * is not splayed, a range query does not make its keys hot
+	 * @param k1 : the lower bound
+	 * @param k2 : the upper bound
+	 */
+	public void inrange(int k1, int k2) {
+		long startTime = recorder.startTime();
+		RangeCursor cursor = new RangeCursor(root, k1, k2);
+		while(cursor.hasNext()) {
+			cursor.nextInt();
+		}
+		this.comparisons = cursor.visits;
+		recorder.record(OperationRecorder.INRANGE, cursor.visits, cursor.visits, startTime);
+	}
+
+	public void inorder() {
+		PrimitiveIterator.OfInt cursor = rangeIterator(Integer.MIN_VALUE, Integer.MAX_VALUE);
+		while(cursor.hasNext()) {
+			System.out.print(cursor.nextInt()+"   ");
+		}
+	}
+
+	public PrimitiveIterator.OfInt rangeIterator(int k1, int k2) {
+		return new RangeCursor(root, k1, k2);
+	}
+
+	/**
+	 * Cursor over the keys of the tree within a range, with an explicit
+	 * stack of the nodes whose key and right subtree are still to be returned
+	 */
+	private static class RangeCursor implements PrimitiveIterator.OfInt {
+
+		private final int k2;
+		private final ArrayDeque<Node> stack;
+		private int visits;
+
+		private RangeCursor(Node root, int k1, int k2) {
+			this.k2 = k2;
+			this.stack = new ArrayDeque<Node>();
+			this.visits = 0;
+
+			// Push the path to the first key >= k1, skipping the smaller keys
+			Node node = root;
+			while(node != null) {
+				visits++;
+				if(k1 <= node.getKey()) {
+					stack.push(node);
+					node = node.getLeft();
+				}else {
+					node = node.getRight();
+				}
+			}
+		}
+
+		public boolean hasNext() {
+			return !stack.isEmpty() && stack.peek().getKey() <= k2;
+		}
+
+		public int nextInt() {
+			if(!hasNext()) {
+				throw new NoSuchElementException();
+			}
+			Node node = stack.pop();
+
+			// The next keys are the leftmost path of the right subtree
+			for(Node n = node.getRight(); n != null; n = n.getLeft()) {
+				visits++;
+				stack.push(n);
+			}
+			return node.getKey();
+		}
+	}
+
+}
@@ -0,0 +1,228 @@
+package mypackage;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.List;
+import java.util.function.IntToLongFunction;
+
+/**
+ * Class that provides a small benchmark harness for measuring the
+ * operations of the data structures
+ *
+ * Each benchmark is run for a number of warmup iterations, whose results
+ * are discarded so that the JIT compiler has compiled the code, and then
+ * for a number of measured iterations of fixed duration. The timer is read
+ * once per batch of calls and not around every call, so its overhead does
+ * not show in the results.
+ *
+ * For every benchmark the throughput (ops/s) and the average time (ns/op)
+ * are reported with their deviation across the iterations, together with the
+ * garbage collections, their time and the bytes allocated per operation.
+ *
+ * The harness follows the way JMH measures, for the projects that
+ * are built without a build tool and its annotation processor
+ *
+ * @author Dimitris Petrou | 2018030070 | ece@tuc
+ *
+ */
+public class Benchmark {
+
+	/**
+	 * The number of iterations run before the measured ones
+	 */
+	private int warmupIterations;
+
+	/**
+	 * The number of measured iterations
+	 */
+	private int measurementIterations;
+
+	/**
+	 * The duration of each iteration in nanoseconds
+	 */
+	private long iterationTime;
+
+	/**
+	 * The number of calls made between two readings of the timer, calls
+	 * that perform many operations each are timed one by one
+	 */
+	private static final int BATCH = 256;
+
+	/**
+	 * The results of the calls are summed here and published, so that
+	 * the JIT compiler cannot remove the calls as dead code
+	 */
+	private volatile long sink;
+
+
+	/**
+	 * Class constructor reading the iterations from the system properties
+	 * bench.warmup (default 3), bench.iterations (default 5) and
+	 * bench.time in milliseconds (default 1000)
+	 */
+	public Benchmark() {
+		this(Integer.getInteger("bench.warmup", 3), Integer.getInteger("bench.iterations", 5), Integer.getInteger("bench.time", 1000));
+	}
+
+	/**
+	 * Class constructor with three int arguments
+	 * @param warmupIterations : the number of warmup iterations
+	 * @param measurementIterations : the number of measured iterations
+	 * @param iterationMillis : the duration of each iteration in milliseconds
+	 */
+	public Benchmark(int warmupIterations, int measurementIterations, int iterationMillis) {
+		this.warmupIterations = warmupIterations;
+		this.measurementIterations = Math.max(1, measurementIterations);
+		this.iterationTime = iterationMillis*1_000_000L;
+	}
+
+	/**
+	 * Method that prints the header of the results table
+	 */
+	public void printHeader() {
+		System.out.printf("%-40s %10s %16s %16s %8s %10s %12s%n", "Benchmark", "(size)", "thrpt ops/s", "avgt ns/op", "gc.count", "gc.time ms", "gc.alloc B/op");
+	}
+
+	/**
+	 * Method that runs a benchmark where every call is one operation
+	 * @param name : the name of the benchmark
+	 * @param size : the size of the data set
+	 * @param operation : the operation, called with 0, 1, 2... (e.g. to pick a key)
+	 */
+	public void run(String name, long size, IntToLongFunction operation) {
+		run(name, size, 1, operation);
+	}
+
+	/**
+	 * Method that runs a benchmark, performing first the warmup
+	 * and then the measured iterations, and prints its results.
+	 *
+	 * The garbage collector statistics and the allocated bytes are
+	 * recorded over the measured iterations only.
+	 *
+	 * @param name : the name of the benchmark
+	 * @param size : the size of the data set
+	 * @param operationsPerCall : the number of operations performed in each call
+	 * 							  (e.g. a call that inserts all the keys of the data set)
+	 * @param operation : the operation, called with 0, 1, 2... (e.g. to pick a key)
+	 */
+	public void run(String name, long size, int operationsPerCall, IntToLongFunction operation) {
+		int[] counter = {0};
+		int batch = (operationsPerCall > 1) ? 1 : BATCH;
+
+		System.gc();
+		for(int i=0; i<warmupIterations; i++) {
+			iteration(operation, counter, batch);
+		}
+
+		long gcCount = gcCount();
+		long gcTime = gcTime();
+		long allocated = allocatedBytes();
+
+		double[] nsPerOp = new double[measurementIterations];
+		long totalOperations = 0;
+		for(int i=0; i<measurementIterations; i++) {
+			long start = System.nanoTime();
+			long calls = iteration(operation, counter, batch);
+			long elapsed = System.nanoTime()-start;
+
+			nsPerOp[i] = (double)elapsed/(calls*operationsPerCall);
+			totalOperations += calls*operationsPerCall;
+		}
+
+		gcCount = gcCount()-gcCount;
+		gcTime = gcTime()-gcTime;
+		allocated = (allocated < 0) ? -1 : allocatedBytes()-allocated;
+
+		double mean = 0;
+		for(double t : nsPerOp) {
+			mean += t;
+		}
+		mean /= nsPerOp.length;
+
+		double deviation = 0;
+		for(double t : nsPerOp) {
+			deviation += (t-mean)*(t-mean);
+		}
+		deviation = Math.sqrt(deviation/nsPerOp.length);
+
+		double throughput = 1e9/mean;
+		double throughputDeviation = throughput*deviation/mean;
+		String allocation = (allocated < 0) ? "n/a" : String.format("%.1f", (double)allocated/totalOperations);
+
+		System.out.printf("%-40s %10d %16s %16s %8d %10d %12s%n", name, size,
+				String.format("%.0f +- %.0f", throughput, throughputDeviation),
+				String.format("%.1f +- %.1f", mean, deviation),
+				gcCount, gcTime, allocation);
+	}
+
+	/**
+	 * Method that calls the operation in batches until the
+	 * duration of the iteration has passed
+	 * @param operation : the operation
+	 * @param counter : the argument of the next call, kept across the iterations
+	 * @param batch : the number of calls made between two readings of the timer
+	 * @return long : the number of calls made
+	 */
+	private long iteration(IntToLongFunction operation, int[] counter, int batch) {
+		long calls = 0;
+		long result = 0;
+		int next = counter[0];
+		long end = System.nanoTime()+iterationTime;
+
+		do {
+			for(int i=0; i<batch; i++) {
+				result += operation.applyAsLong(next++);
+			}
+			calls += batch;
+		}while(System.nanoTime() < end);
+
+		counter[0] = next;
+		sink = result;
+		return calls;
+	}
+
+	/**
+	 * Method that returns the total number of collections of all the garbage collectors
+	 * @return long : the number of collections
+	 */
+	private static long gcCount() {
+		long count = 0;
+		List<GarbageCollectorMXBean> collectors = ManagementFactory.getGarbageCollectorMXBeans();
+		for(GarbageCollectorMXBean gc : collectors) {
+			count += Math.max(0, gc.getCollectionCount());
+		}
+		return count;
+	}
+
+	/**
+	 * Method that returns the total time spent in collections by all the garbage collectors
+	 * @return long : the time in milliseconds
+	 */
+	private static long gcTime() {
+		long time = 0;
+		List<GarbageCollectorMXBean> collectors = ManagementFactory.getGarbageCollectorMXBeans();
+		for(GarbageCollectorMXBean gc : collectors) {
+			time += Math.max(0, gc.getCollectionTime());
+		}
+		return time;
+	}
+
+	/**
+	 * Method that returns the bytes allocated so far by the current thread,
+	 * if the virtual machine supports measuring them
+	 * @return long : the allocated bytes, or -1 if they cannot be measured
+	 */
+	private static long allocatedBytes() {
+		ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+		if(threads instanceof com.sun.management.ThreadMXBean) {
+			return ((com.sun.management.ThreadMXBean)threads).getThreadAllocatedBytes(Thread.currentThread().getId());
+		}
+		return -1;
+	}
+
+	public long getSink() {
+		return this.sink;
+	}
+
+}
@@ -0,0 +1,345 @@
+package mypackage;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+
+/**
+ * This class stores a sorted array of keys compressed, like the Nx1
+ * array of the MyTree class, and provides the searches and the range
+ * queries of the SortedArray class over it
+ *
+ * The keys are cut in blocks of 128. Every key is stored as the difference
+ * from the key before it, with the bits needed by the greatest difference
+ * of its block, and every block starts at a new word. The keys of a large
+ * set are close to each other, so the differences need far fewer than 32 bits.
+ *
+ * The first key of every 32 keys is also kept in a plain array, the index.
+ * A search finds the part of the key with a binary search in the index and
+ * then decodes only that part, at most 31 differences, until the key is
+ * passed. A range query decodes the blocks of the range one after the other.
+ * The array cannot be modified after it is constructed.
+ *
+ * @author Dimitris Petrou | 2018030070 | ece@tuc
+ *
+ */
+public class CompressedSortedArray implements RangeSearch {
+
+	/**
+	 * The number of keys of every block, except maybe the last one
+	 */
+	private static final int BLOCK = 128;
+
+	/**
+	 * The number of keys between two keys of the index, it divides BLOCK
+	 */
+	private static final int SKIP = 32;
+
+	/**
+	 * The number of keys stored
+	 */
+	private int length;
+
+	/**
+	 * The key of every SKIP-th position
+	 */
+	private int[] index;
+
+	/**
+	 * The bits of every difference of every block, from 0 to 32
+	 */
+	private byte[] widths;
+
+	/**
+	 * The first word of the differences of every block in the words array
+	 */
+	private int[] blockWords;
+
+	/**
+	 * The packed differences, the difference of the first key of a block is not stored
+	 */
+	private long[] words;
+
+
+	/**
+	 * Class constructor with an int array argument
+	 * @param sortedKeys : the keys in ascending order, they are not needed after the construction
+	 * @throws IllegalArgumentException if the keys are not in ascending order
+	 */
+	public CompressedSortedArray(int[] sortedKeys) {
+		this.length = sortedKeys.length;
+		int blocks = (length + BLOCK - 1) / BLOCK;
+		this.index = new int[(length + SKIP - 1) / SKIP];
+		this.widths = new byte[blocks];
+		this.blockWords = new int[blocks];
+
+		for(int i=0; i<index.length; i++) {
+			index[i] = sortedKeys[i*SKIP];
+		}
+
+		// Find the width of every block and the words it needs
+		long totalWords = 0;
+		for(int b=0; b<blocks; b++) {
+			int from = b*BLOCK;
+			int to = Math.min(length, from+BLOCK);
+			long maxDelta = 0;
+			for(int i=from+1; i<to; i++) {
+				long delta = (long)sortedKeys[i] - sortedKeys[i-1];
+				if(delta < 0) {
+					throw new IllegalArgumentException("The keys are not in ascending order at position "+i);
+				}
+				maxDelta = Math.max(maxDelta, delta);
+			}
+			int width = 64 - Long.numberOfLeadingZeros(maxDelta);
+
+			widths[b] = (byte) width;
+			blockWords[b] = (int) totalWords;
+			totalWords += ((long)(to-from-1)*width + 63) / 64;
+			if(totalWords > Integer.MAX_VALUE) {
+				throw new IllegalArgumentException("Too many keys to compress: "+length);
+			}
+		}
+
+		// Pack the differences, a block of equal keys takes no words
+		this.words = new long[(int) totalWords];
+		for(int b=0; b<blocks; b++) {
+			int from = b*BLOCK;
+			int to = Math.min(length, from+BLOCK);
+			int width = widths[b];
+			long bit = (long)blockWords[b] * 64;
+
+			for(int i=from+1; i<to && width>0; i++, bit+=width) {
+				long delta = (long)sortedKeys[i] - sortedKeys[i-1];
+				int word = (int)(bit >>> 6);
+				int shift = (int)(bit & 63);
+				words[word] |= delta << shift;
+				if(shift + width > 64) {
+					words[word+1] |= delta >>> (64 - shift);
+				}
+			}
+		}
+	}
+
+	public int getLength() {
+		return this.length;
+	}
+
+	/**
+	 * Method that returns the memory used by the arrays of the compressed keys
+	 * @return long : the number of bytes
+	 */
+	public long getCompressedBytes() {
+		return 4L*index.length + widths.length + 4L*blockWords.length + 8L*words.length;
+	}
+
+	/**
+	 * Method that reads the difference of a key from the key before it
+	 * @param position : the position of the key, not the first one of a block
+	 * @return int : the difference, it may be a negative int when it needs 32 bits
+	 */
+	private int delta(int position) {
+		int b = position / BLOCK;
+		int width = widths[b];
+		if(width == 0) {
+			return 0;
+		}
+		long bit = (long)(position % BLOCK - 1) * width;
+		int word = blockWords[b] + (int)(bit >>> 6);
+		int shift = (int)(bit & 63);
+
+		long value = words[word] >>> shift;
+		if(shift + width > 64) {
+			value |= words[word+1] << (64 - shift);
+		}
+		return (int)(value & ((1L << width) - 1));
+	}
+
+	/**
+	 * Method that finds the first key of the index that is greater than or
+	 * equal to a given key, with a binary search
+	 * @param key : the key
+	 * @return int : the position in the index, its length if all the keys are smaller
+	 */
+	private int indexLowerBound(int key) {
+		int lo = 0;
+		int hi = index.length;
+
+		while(lo < hi) {
+			int mid = (lo + hi) >>> 1;
+			if(index[mid] < key) {
+				lo = mid + 1;
+			}else {
+				hi = mid;
+			}
+		}
+		return lo;
+	}
+
+	/**
+	 * Method that decodes the keys that follow a key of the index, which is
+	 * smaller than a given key, until it finds a key greater than or equal to
+	 * it. The words are read one after the other, without the multiplications
+	 * of the delta method
+	 * @param i : the position in the index
+	 * @param key : the key
+	 * @return long : the distance from the key of the index to the key found in
+	 * 				  the high 32 bits and the key in the low 32 bits, or the
+	 * 				  number of keys up to the next key of the index in the high
+	 * 				  bits if all of them are smaller
+	 */
+	private long scan(int i, int key) {
+		int from = i*SKIP;
+		int count = Math.min(SKIP, length - from);
+		int b = from / BLOCK;
+		int width = widths[b];
+		if(width == 0) {
+			return (long)count << 32;
+		}
+		long mask = (1L << width) - 1;
+		long bit = (long)(from % BLOCK) * width;
+		int word = blockWords[b] + (int)(bit >>> 6);
+		int shift = (int)(bit & 63);
+		int k = index[i];
+
+		for(int j=1; j<count; j++) {
+			long value = words[word] >>> shift;
+			int end = shift + width;
+			if(end > 64) {
+				value |= words[word+1] << (64 - shift);
+			}
+			if(end >= 64) {
+				word++;
+				end -= 64;
+			}
+			shift = end;
+
+			k += (int)(value & mask);
+			if(k >= key) {
+				return ((long)j << 32) | (k & 0xFFFFFFFFL);
+			}
+		}
+		return (long)count << 32;
+	}
+
+	/**
+	 * Method that finds the first position whose key is greater than or
+	 * equal to a given key. Only the keys after the last smaller key of
+	 * the index are decoded
+	 * @param key : the key
+	 * @return int : the position, the length of the array if all the keys are smaller
+	 */
+	public int lowerBound(int key) {
+		int i = indexLowerBound(key);
+		if(i == 0) {
+			return 0;
+		}
+
+		// The answer follows the key of the index i-1, or it is the key of the index i
+		i--;
+		return i*SKIP + (int)(scan(i, key) >>> 32);
+	}
+
+	/**
+	 * Method that finds the first position whose key is greater than a given key
+	 * @param key : the key
+	 * @return int : the position, the length of the array if no key is greater
+	 */
+	public int upperBound(int key) {
+		return (key == Integer.MAX_VALUE) ? length : lowerBound(key+1);
+	}
+
+	/**
+	 * Method that searches for a specific key
+	 * @param key : the key we are searching for
+	 * @return true/false if the key was found or not
+	 */
+	public boolean contains(int key) {
+		int i = indexLowerBound(key);
+		if(i < index.length && index[i] == key) {
+			return true;
+		}
+		if(i == 0) {
+			return false;
+		}
+
+		i--;
+		long found = scan(i, key);
+		return (int)(found >>> 32) < Math.min(SKIP, length - i*SKIP) && (int)found == key;
+	}
+
+	/**
+	 * Method that returns the number of keys that are smaller than a given key
+	 * @param key : the key
+	 * @return int : the number of smaller keys
+	 */
+	public int rank(int key) {
+		return lowerBound(key);
+	}
+
+	/**
+	 * Method that returns the k-th smallest key, decoding the keys from
+	 * the key of the index before it
+	 * @param k : the position of the key in ascending order, starting from 0
+	 * @return int : the key
+	 * @throws IndexOutOfBoundsException if k is not less than the number of keys
+	 */
+	public int select(int k) {
+		if(k < 0 || k >= length) {
+			throw new IndexOutOfBoundsException("No key at position "+k+" of "+length);
+		}
+		int key = index[k / SKIP];
+		for(int p=k-k%SKIP+1; p<=k; p++) {
+			key += delta(p);
+		}
+		return key;
+	}
+
+	public PrimitiveIterator.OfInt rangeIterator(int k1, int k2) {
+		int from = lowerBound(k1);
+		int to = (k1 <= k2) ? Math.max(from, upperBound(k2)) : from;
+
+		return new Cursor(from, to);
+	}
+
+	public int countInRange(int k1, int k2, int limit) {
+		if(k1 > k2) {
+			return 0;
+		}
+		return Math.min(limit, upperBound(k2) - lowerBound(k1));
+	}
+
+	/**
+	 * Cursor over the keys between two positions. It holds the key of the
+	 * current position, decoded from the previous key or read from the index
+	 */
+	private class Cursor implements PrimitiveIterator.OfInt {
+
+		private final int to;
+		private int position;
+		private int key;
+
+		private Cursor(int from, int to) {
+			this.to = to;
+			this.position = from;
+			if(from < to) {
+				this.key = select(from);
+			}
+		}
+
+		public boolean hasNext() {
+			return position < to;
+		}
+
+		public int nextInt() {
+			if(position >= to) {
+				throw new NoSuchElementException();
+			}
+			int current = key;
+
+			position++;
+			if(position < to) {
+				key = (position % SKIP == 0) ? index[position / SKIP] : key + delta(position);
+			}
+			return current;
+		}
+	}
+
+}
@@ -0,0 +1,226 @@
+package mypackage;
+import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Class that measures the throughput of a tree shared by many threads,
+ * for 1, 2, 4... threads up to the number of cores and for different
+ * ratios of searches to updates
+ *
+ * The non-blocking BST is compared with the static BST protected by a
+ * single lock, which is the simplest way to share the existing trees, and
+ * with the copy-on-write BST, whose readers never block but whose writers
+ * are serialized.
+ *
+ * The keys are the numbers of the given file, or random numbers if no
+ * file is given. Each tree starts with half of them, and the updates are
+ * half insertions and half deletions of random keys, so the size of the
+ * tree stays about the same during the measurements. All the trees store
+ * a key once: the locked static BST, which keeps repeated keys, searches
+ * for the key before inserting it.
+ *
+ * Usage: ConcurrentBenchmark [file]
+ * The duration of each measurement is set with -Dbench.time in milliseconds
+ *
+ * @author Dimitris Petrou | 2018030070 | ece@tuc
+ *
+ */
+public class ConcurrentBenchmark {
+
+	/**
+	 * The percentages of searches among the operations measured
+	 */
+	private static final int[] READ_PERCENTS = {100, 90, 50};
+
+	/**
+	 * The number of random keys used when no file is given
+	 */
+	private static final int DEFAULT_SIZE = 1_000_000;
+
+	/**
+	 * The operations performed by the threads on a shared tree
+	 */
+	private interface SharedTree {
+		boolean searchKey(int key);
+		void insertKey(int key);
+		void deleteKey(int key);
+	}
+
+	/**
+	 * The keys of the benchmark
+	 */
+	private int[] numbers;
+
+	/**
+	 * The duration of each measurement in milliseconds
+	 */
+	private int duration;
+
+
+	/**
+	 * Class constructor with an int array argument
+	 * @param numbers : the keys of the benchmark
+	 */
+	public ConcurrentBenchmark(int[] numbers) {
+		this.numbers = numbers;
+		this.duration = Integer.getInteger("bench.time", 1000);
+	}
+
+	public static void main(String[] args) throws Exception {
+		int[] numbers;
+
+		if(args.length > 0) {
+			numbers = new FileAccess(args[0]).getNumbers();
+		}else {
+			Random random = new Random(42);
+			numbers = new int[DEFAULT_SIZE];
+			for(int i=0; i<numbers.length; i++) {
+				numbers[i] = random.nextInt();
+			}
+		}
+
+		ConcurrentBenchmark cb = new ConcurrentBenchmark(numbers);
+
+		BST_LockFree lockFree = new BST_LockFree();
+		cb.benchmark("Lock-free BST", new SharedTree() {
+			public boolean searchKey(int key) {
+				return lockFree.searchKey(key);
+			}
+			public void insertKey(int key) {
+				lockFree.insertKey(key);
+			}
+			public void deleteKey(int key) {
+				lockFree.deleteKey(key);
+			}
+		});
+
+		BST_Snapshot snapshot = new BST_Snapshot();
+		cb.benchmark("Copy-on-write BST", new SharedTree() {
+			public boolean searchKey(int key) {
+				return snapshot.searchKey(key);
+			}
+			public void insertKey(int key) {
+				snapshot.insertKey(key);
+			}
+			public void deleteKey(int key) {
+				snapshot.deleteKey(key);
+			}
+		});
+
+		BST_Arr locked = new BST_Arr(numbers.length);
+		cb.benchmark("Static BST with a lock", new SharedTree() {
+			public synchronized boolean searchKey(int key) {
+				return locked.searchKey(key);
+			}
+			public synchronized void insertKey(int key) {
+				// BST_Arr keeps repeated keys, like the other trees a key is stored once
+				if(!locked.searchKey(key)) {
+					locked.insertKey(key);
+				}
+			}
+			public synchronized void deleteKey(int key) {
+				locked.deleteKey(key);
+			}
+		});
+	}
+
+	/**
+	 * Method that fills a tree with half of the keys and measures its
+	 * throughput for every ratio of searches and number of threads
+	 * @param name : the name of the tree
+	 * @param tree : the tree
+	 * @throws Exception if a thread is interrupted
+	 */
+	private void benchmark(String name, SharedTree tree) throws Exception {
+		for(int i=0; i<numbers.length; i+=2) {
+			tree.insertKey(numbers[i]);
+		}
+
+		int cores = Runtime.getRuntime().availableProcessors();
+
+		System.out.println("\n--> "+name+" | "+numbers.length+" keys, "+cores+" cores");
+		System.out.printf("  %8s %8s %16s %8s%n", "reads %", "threads", "ops/s", "speedup");
+
+		// Warmup, so that the first measurement is not taken by the interpreter
+		run(tree, 1, 90);
+
+		for(int readPercent : READ_PERCENTS) {
+			double singleThread = 0;
+			int threads = 1;
+
+			while(true) {
+				double throughput = run(tree, threads, readPercent);
+				if(threads == 1) {
+					singleThread = throughput;
+				}
+				System.out.printf("  %8d %8d %16.0f %7.2fx%n", readPercent, threads, throughput, throughput/singleThread);
+
+				if(threads >= cores) {
+					break;
+				}
+				threads = Math.min(threads*2, cores);
+			}
+		}
+	}
+
+	/**
+	 * Method that runs a number of threads on the tree for the duration of a
+	 * measurement. Each thread performs random operations on random keys,
+	 * checking the time every 256 operations
+	 * @param tree : the tree
+	 * @param threads : the number of threads
+	 * @param readPercent : the percentage of searches among the operations
+	 * @return double : the total number of operations per second
+	 * @throws Exception if a thread is interrupted
+	 */
+	private double run(SharedTree tree, int threads, int readPercent) throws Exception {
+		CyclicBarrier start = new CyclicBarrier(threads+1);
+		LongAdder operations = new LongAdder();
+		Thread[] workers = new Thread[threads];
+		long[] endTime = new long[1];
+
+		for(int t=0; t<threads; t++) {
+			SplittableRandom random = new SplittableRandom(t);
+
+			workers[t] = new Thread(() -> {
+				long count = 0;
+				try {
+					start.await();
+				}catch(Exception e) {
+					return;
+				}
+
+				while(System.nanoTime() < endTime[0]) {
+					for(int i=0; i<256; i++) {
+						int key = numbers[random.nextInt(numbers.length)];
+
+						if(random.nextInt(100) < readPercent) {
+							tree.searchKey(key);
+						}else if(random.nextBoolean()) {
+							tree.insertKey(key);
+						}else {
+							tree.deleteKey(key);
+						}
+					}
+					count += 256;
+				}
+				operations.add(count);
+			});
+			workers[t].start();
+		}
+
+		long startTime = System.nanoTime();
+		endTime[0] = startTime + duration*1_000_000L;
+		start.await();
+
+		for(Thread worker : workers) {
+			worker.join();
+		}
+		long elapsed = System.nanoTime()-startTime;
+
+		return operations.sum()*1e9/elapsed;
+	}
+
+}
@@ -0,0 +1,164 @@
+package mypackage;
+
+/**
+ * This class implements a read-only search index over a sorted
+ * array of keys, stored in Eytzinger (BFS) order
+ *
+ * The keys are placed in the array as the nodes of a perfectly
+ * balanced BST would be visited level by level: the root is at
+ * position 1 and the children of the node at position k are at
+ * positions 2k and 2k+1. So the first levels of every search
+ * share the same few cache lines and the next positions to be
+ * visited are always close to each other, unlike the binary search
+ * over the sorted array that jumps across the whole array.
+ *
+ * The search moves down the levels without branching on the result
+ * of the comparisons, so there are no mispredictions to pay for.
+ *
+ * @author Dimitris Petrou | 2018030070 | ece@tuc
+ *
+ * @from Array Layouts for Comparison-Based Searching (Khuong, Morin)
+ *
+ */
+public class EytzingerIndex {
+
+	/**
+	 * The array storing the keys in Eytzinger order, position 0 is not used
+	 */
+	private int[] keys;
+
+	/**
+	 * The number of keys stored in the index
+	 */
+	private int size;
+
+	/**
+	 * An iterator used for storing the keys while the index is built
+	 */
+	private int iterator;
+
+	/**
+	 * A member variable used to track the number of comparisons performed by each method
+	 */
+	private int comparisons;
+
+
+	/**
+	 * Class constructor with an int array argument
+	 * @param sortedArray : the keys of the index in ascending order
+	 */
+	public EytzingerIndex(int[] sortedArray) {
+		this.size = sortedArray.length;
+		this.keys = new int[size+1];
+		this.comparisons = 0;
+
+		this.iterator = 0;
+		build(sortedArray, 1);
+	}
+
+	/**
+	 * Recursive method that fills the index performing an inorder
+	 * traversal of the implicit tree, so that the keys of the sorted
+	 * array are stored in the positions of the nodes in ascending order
+	 * @param sortedArray : the keys in ascending order
+	 * @param k : the position of the current node
+	 */
+	private void build(int[] sortedArray, int k) {
+		if(k <= size) {
+			build(sortedArray, 2*k);
+			keys[k] = sortedArray[iterator++];
+			build(sortedArray, 2*k+1);
+		}
+	}
+
+	public int getComparisons() {
+		return this.comparisons;
+	}
+
+	public int getSize() {
+		return this.size;
+	}
+
+	/**
+	 * Method that returns the position of the smallest key that is
+	 * greater than or equal to the given key.
+	 *
+	 * We move down the implicit tree choosing the left or the right child
+	 * according to the comparison, until we fall off the last level. The
+	 * bits of the final position record the path: the answer is the last
+	 * node where we moved left, so we drop the trailing right moves
+	 * (ones) and the left move (zero) before them.
+	 *
+	 * @param key : the key we are searching for
+	 * @return int : the position of the lower bound, or 0 if all the keys are smaller
+	 */
+	private int lowerBound(int key) {
+		int k = 1;
+
+		while(k <= size) {
+			this.comparisons++;
+			k = 2*k + (keys[k] < key ? 1 : 0);
+		}
+
+		return k >>> (Integer.numberOfTrailingZeros(~k) + 1);
+	}
+
+	/**
+	 * Method that returns the position of the key that follows the key
+	 * at position k in ascending order.
+	 *
+	 * If the node has a right child, the next key is the leftmost node of
+	 * the right subtree. Else we move up while the node is a right child
+	 * and then one more level.
+	 *
+	 * @param k : the position of the current key
+	 * @return int : the position of the next key, or 0 if k holds the largest key
+	 */
+	private int next(int k) {
+		if(2*k+1 <= size) {
+			k = 2*k+1;
+			while(2*k <= size) {
+				k = 2*k;
+			}
+			return k;
+		}
+		return k >>> (Integer.numberOfTrailingZeros(~k) + 1);
+	}
+
+	/**
+	 * Method that searches for a specific key in the index
+	 * @param key : the key we are searching for
+	 * @return true/false if the key was found or not
+	 */
+	public boolean searchKey(int key) {
+		this.comparisons = 0;
+
+		int k = lowerBound(key);
+
+		this.comparisons++;
+		return k != 0 && keys[k] == key;
+	}
+
+	/**
+	 * Method that visits the keys of the index within a specific range.
+	 * It finds the lower bound of the range and then it moves from key
+	 * to key in ascending order until the upper bound is exceeded
+	 * @param a : the lower bound
+	 * @param b : the upper bound
+	 */
+	public void inrange(int a, int b) {
+		this.comparisons = 0;
+
+		int k = lowerBound(a);
+
+		while(k != 0) {
+			this.comparisons++;
+			if(keys[k] > b) {
+				break;
+			}
+			//System.out.print(keys[k] + " ");
+			k = next(k);
+		}
+	}
+
+}
@@ -4,11 +4,26 @@ import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.RandomAccessFile;
 import java.nio.ByteBuffer;
-import java.util.Vector;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
 
 /**
  * Class that provides methods for reading the numbers
- * from the provide file using RandomAccessFile logic
+ * from the provide file by mapping it in memory
+ * 
+ * The byte order of the numbers is taken from the name of the
+ * file (_BE or _LE), big endian is used if the name has neither
+ * 
+ * The numbers are provided as a primitive int array, as an IntStream
+ * or as IntBuffer chunks of the mapped file, so no boxed Integer
+ * is created for any of them. Files larger than the heap can be
+ * streamed chunk by chunk straight into a data structure
  * 
  * @author Dimitris Petrou | 2018030070 | ece@tuc
  * 
@@ -21,9 +36,9 @@ public class FileAccess {
 	private String filepath;
 	
 	/**
-	 * A vector of integers used to store the numbers after they are read from the file
+	 * An array of integers used to store the numbers after they are read from the file
 	 */
-	private Vector<Integer> numbers;
+	private int[] numbers;
 	
 	/**
 	 * A file object corresponding to the file of the path provided
@@ -31,9 +46,20 @@ public class FileAccess {
 	private File inputFile;
 	
 	/**
-	 * A byte array used to store each byte set read from the file
+	 * The byte order of the numbers stored in the file
+	 */
+	private ByteOrder byteOrder;
+	
+	/**
+	 * Static variable for the maximum number of bytes mapped at once, a single 
+	 * mapping cannot exceed 2GB so larger files are mapped region by region
 	 */
-	private byte[] inputData = null;
+	private static final long regionSize = (Integer.MAX_VALUE/4)*4L;
+	
+	/**
+	 * Static variable for the default number of numbers read in each chunk while streaming
+	 */
+	public static final int DEFAULT_CHUNK_SIZE = 1 << 16;
 
 	/**
 	 * Static variable for setting a constant for the size of an integer in bytes
@@ -56,52 +82,240 @@ public class FileAccess {
 	 * @param filepath The path to the file containing the numbers
 	 */
 	public FileAccess(String filepath) {
+		this(filepath, byteOrderOf(filepath));
+	}
+	
+	/**
+	 * Class constructor with String and ByteOrder arguments
+	 * @param filepath The path to the file containing the numbers
+	 * @param byteOrder The byte order of the numbers in the file
+	 */
+	public FileAccess(String filepath, ByteOrder byteOrder) {
 		this.filepath = filepath;
+		this.byteOrder = byteOrder;
 		setup();
 	}
 	
+	/**
+	 * Method that finds the byte order of a file from its name, 
+	 * the test files are named as testnumbers_[N]_BE.bin or testnumbers_[N]_LE.bin
+	 * @param filepath : the path to the file
+	 * @return ByteOrder : LITTLE_ENDIAN if the name ends with _LE, else BIG_ENDIAN
+	 */
+	public static ByteOrder byteOrderOf(String filepath) {
+		String name = new File(filepath).getName().toUpperCase();
+		if(name.endsWith("_LE.BIN") || name.endsWith("_LE")) {
+			return ByteOrder.LITTLE_ENDIAN;
+		}
+		return ByteOrder.BIG_ENDIAN;
+	}
+	
 	/**
 	 * Method instantiating, initializing and setting the member variables of the class
 	 */
 	public void setup() {
-		this.numbers = new Vector<Integer>();
+		this.numbers = null;
 		this.inputFile = new File(filepath);
 		this.fileSize = inputFile.length();
 		this.numbersInFile = fileSize/intSize;
 	}
 	
-	public Vector<Integer> getNumbers(){
+	/**
+	 * Method that reads the numbers of the file in a new array, 
+	 * the caller owns the array and may modify it (e.g. sort it)
+	 * @return int[] : the numbers in the order they are stored in the file
+	 */
+	public int[] getNumbers(){
 		readNumbersFromFile();
 		return numbers;
 	}
 	
+	/**
+	 * Method that returns the numbers of the file as a stream, decoded 
+	 * straight from the mapped file without storing them in an array
+	 * @return IntStream : the numbers in the order they are stored in the file
+	 */
+	public IntStream getNumberStream() {
+		return Arrays.stream(mapRegions()).flatMapToInt(region -> IntStream.range(0, region.limit()).map(region::get));
+	}
+	
+	/**
+	 * Method that returns an iterator over consecutive chunks of the numbers of the
+	 * file. Each chunk is a read-only IntBuffer view of the mapped file holding up to 
+	 * chunkSize numbers, so a chunk can be consumed with a bulk get in a reused array
+	 * @param chunkSize : the maximum number of numbers in each chunk
+	 * @return Iterator<IntBuffer> : the chunks in the order they are stored in the file
+	 */
+	public Iterator<IntBuffer> getChunks(int chunkSize) {
+		if(chunkSize <= 0) {
+			throw new IllegalArgumentException("The chunk size must be positive");
+		}
+		IntBuffer[] regions = mapRegions();
+		
+		return new Iterator<IntBuffer>() {
+			private int region = 0;
+			private int position = 0;
+			
+			public boolean hasNext() {
+				while(region < regions.length && position == regions[region].limit()) {
+					region++;
+					position = 0;
+				}
+				return region < regions.length;
+			}
+			
+			public IntBuffer next() {
+				if(!hasNext()) {
+					throw new NoSuchElementException();
+				}
+				IntBuffer chunk = regions[region].duplicate();
+				int end = Math.min(chunk.limit(), position+chunkSize);
+				chunk.limit(end).position(position);
+				position = end;
+				return chunk.slice();
+			}
+		};
+	}
+	
+	/**
+	 * Method that returns the number of numbers in the file, files with more 
+	 * than Integer.MAX_VALUE numbers can only be streamed, see getLongLength()
+	 * @return int : the number of numbers, at most Integer.MAX_VALUE
+	 */
 	public int getLength() {
-		return (int)this.numbersInFile;
+		return (int)Math.min(this.numbersInFile, Integer.MAX_VALUE);
+	}
+	
+	public long getLongLength() {
+		return this.numbersInFile;
+	}
+	
+	public ByteOrder getByteOrder() {
+		return this.byteOrder;
 	}
 	
 	/**
-	 * Method that uses a RandomAccessFile object to read iteratively 
-	 * the numbers from the file and store them in a vector.
+	 * Method that maps the file in memory read-only, region by region since a 
+	 * single mapping cannot exceed 2GB, and returns an IntBuffer view of each 
+	 * region in the byte order of the file. The mappings stay valid after the 
+	 * file is closed
+	 * @return IntBuffer[] : the views of the regions in the order of the file
+	 */
+	private IntBuffer[] mapRegions() {
+		long numberBytes = numbersInFile*intSize;
+		IntBuffer[] regions = new IntBuffer[(int)((numberBytes+regionSize-1)/regionSize)];
+		
+		try {
+			RandomAccessFile raf = new RandomAccessFile(inputFile,"r");
+			FileChannel channel = raf.getChannel();
+			
+			for(int r = 0; r < regions.length; r++) {
+				long position = r*regionSize;
+				long size = Math.min(regionSize, numberBytes-position);
+				regions[r] = channel.map(FileChannel.MapMode.READ_ONLY, position, size).order(byteOrder).asIntBuffer();
+			}
+			
+			raf.close();
+			
+		} catch (FileNotFoundException e) {
+			e.printStackTrace();
+			return new IntBuffer[0];
+		} catch (IOException e) {
+			e.printStackTrace();
+			return new IntBuffer[0];
+		}
+		
+		return regions;
+	}
+	
+	/**
+	 * Method that maps the file in memory read-only and copies the 
+	 * numbers in one pass from an IntBuffer view of the mapping 
+	 * into a primitive array.
 	 * 
-	 * The method read 4 by 4 the bytes from the file for as many times as 
-	 * the numbers contained are (calculated by the size).
+	 * Instead of a seek and a read system call for every number, the 
+	 * operating system pages the file in and the numbers are decoded 
+	 * in the byte order of the file straight from the mapped memory.
 	 * 
-	 * It converts them to integers and stores each number in the vector
+	 * The file must fit in an array, larger files have to be streamed.
 	 */
 	public void readNumbersFromFile() {
-
+		if(numbersInFile > Integer.MAX_VALUE-8) {
+			throw new IllegalStateException("The file has "+numbersInFile+" numbers, too many for an array. Use streamNumbers");
+		}
+		IntBuffer[] regions = mapRegions();
+		int read = 0;
+		
+		numbers = new int[getLength()];
+		
+		for(IntBuffer region : regions) {
+			int length = region.remaining();
+			region.get(numbers, read, length);
+			read += length;
+		}
+		
+		if(read < numbers.length) {
+			numbers = Arrays.copyOf(numbers, read);
+		}
+	}
+	
+	/**
+	 * Method that streams the numbers of the file to a consumer using
+	 * chunks of the default size
+	 * @param consumer : the consumer of the numbers (e.g. tree::insertKey)
+	 * @return long : the number of numbers streamed
+	 */
+	public long streamNumbers(IntConsumer consumer) {
+		return streamNumbers(DEFAULT_CHUNK_SIZE, consumer);
+	}
+	
+	/**
+	 * Method that reads the file sequentially in fixed size chunks through 
+	 * a FileChannel and pushes every number of each chunk to the consumer, 
+	 * before the next chunk is read.
+	 * 
+	 * Only one direct buffer and one int array of chunkSize numbers are 
+	 * allocated, reused for all the chunks, so the memory needed does not 
+	 * depend on the size of the file and files with billions of numbers 
+	 * can be loaded in a data structure that fits in memory.
+	 * 
+	 * @param chunkSize : the number of numbers read in each chunk
+	 * @param consumer : the consumer of the numbers (e.g. tree::insertKey)
+	 * @return long : the number of numbers streamed
+	 */
+	public long streamNumbers(int chunkSize, IntConsumer consumer) {
+		if(chunkSize <= 0) {
+			throw new IllegalArgumentException("The chunk size must be positive");
+		}
+		
+		ByteBuffer buffer = ByteBuffer.allocateDirect(chunkSize*intSize).order(byteOrder);
+		int[] chunk = new int[chunkSize];
+		long streamed = 0;
+		
 		try {
-			RandomAccessFile raf = new RandomAccessFile(inputFile,"rwd");
-			ByteBuffer bb;
-
-			inputData = new byte[4];
+			RandomAccessFile raf = new RandomAccessFile(inputFile,"r");
+			FileChannel channel = raf.getChannel();
+			boolean endOfFile = false;
 			
-			for(int i = 0; i<=numbersInFile-1; i++) {
-				raf.seek(i*intSize);
-				raf.read(inputData);
+			while(streamed < numbersInFile && !endOfFile) {
+				buffer.clear();
+				buffer.limit((int)Math.min(buffer.capacity(), (numbersInFile-streamed)*intSize));
+				
+				while(buffer.hasRemaining()) {
+					if(channel.read(buffer) < 0) {
+						endOfFile = true;
+						break;
+					}
+				}
+				buffer.flip();
+				
+				int count = buffer.remaining()/intSize;
+				buffer.asIntBuffer().get(chunk, 0, count);
 				
-				bb = ByteBuffer.wrap(inputData);
-				numbers.add(bb.getInt());
+				for(int i = 0; i < count; i++) {
+					consumer.accept(chunk[i]);
+				}
+				streamed += count;
 			}
 			
 			raf.close();
@@ -112,6 +326,7 @@ public class FileAccess {
 			e.printStackTrace();
 		}
 		
+		return streamed;
 	}
 	
 	
@@ -1,8 +1,9 @@
 package mypackage;
 import java.io.File;
 import java.io.FileNotFoundException;
+import java.util.Arrays;
+import java.util.Random;
 import java.util.Scanner;
-import java.util.Vector;
 
 /**
  * A class bonding the overall functionality of the program
@@ -26,12 +27,74 @@ public class MyTree {
 	 */
 	private BST_Dyn bst_dyn;
 	
+	/**
+	 * "A self-balancing AVL tree with dynamic memory allocation" member variable
+	 * used to implement all the operations specified
+	 */
+	private BST_AVL bst_avl;
+	
+	/**
+	 * "A red-black tree with dynamic memory allocation" member variable
+	 * used to implement all the operations specified
+	 */
+	private RBT_Dyn rbt_dyn;
+	
+	/**
+	 * "A red-black tree implemented with arrays" member variable
+	 * used to implement all the operations specified
+	 */
+	private RBT_Arr rbt_arr;
+	
+	/**
+	 * "A B+ tree with cache-line-sized nodes" member variable
+	 * used to implement all the operations specified
+	 */
+	private BPlusTree bplus;
+	
+	/**
+	 * "A splay tree with dynamic memory allocation" member variable
+	 * used to implement all the operations specified
+	 */
+	private BST_Splay bst_splay;
+	
+	/**
+	 * "A Binary Search Tree stored outside of the heap" member variable,
+	 * null if it was not selected in the arguments
+	 */
+	private BST_OffHeap bst_offheap;
+	
+	/**
+	 * "A Binary Search Tree with the nodes interleaved in one array" member
+	 * variable, null if it was not selected in the arguments
+	 */
+	private BST_Interleaved bst_interleaved;
+	
+	/**
+	 * The trees that are constructed and compared, in the order they are reported
+	 */
+	private SearchTree[] trees;
+	
+	/**
+	 * The names of the trees used in the reports, in the same order as the trees array
+	 */
+	private String[] treeNames;
+	
 	/**
 	 * A single dimensional array member variable used to store a sorted version
 	 * of the numbers provided
 	 */
 	private int[] array1D;
 	
+	/**
+	 * A read-only index storing the sorted numbers in Eytzinger (BFS) order
+	 */
+	private EytzingerIndex eytzinger;
+	
+	/**
+	 * A read-only index storing the sorted numbers in van Emde Boas order
+	 */
+	private VanEmdeBoasIndex vanEmdeBoas;
+	
 	/**A FileAccess member variable that implements and provided the required methods
 	 * for reading the file provided
 	 */
@@ -43,25 +106,119 @@ public class MyTree {
 	 */
 	private int comparisons=0;
 	
+	/**
+	 * The way the trees are constructed from the numbers of the file
+	 */
+	private int constructionMode;
+	
+	/**
+	 * Construction mode where the numbers are inserted one by one in the order of the file
+	 */
+	public static final int INSERT_MODE = 0;
+	
+	/**
+	 * Construction mode where the numbers are sorted first and then bulk loaded in the trees
+	 */
+	public static final int BULK_MODE = 1;
+	
+	/**
+	 * Construction mode like the bulk mode, where the numbers are sorted and the 
+	 * static tree is built using all the cores of the system
+	 */
+	public static final int PARALLEL_MODE = 2;
+	
+	/**
+	 * Construction mode where the numbers are streamed from the file in chunks and 
+	 * inserted one by one, without ever storing the whole file in memory
+	 */
+	public static final int STREAM_MODE = 3;
+	
 	
 	/**
 	 * Class constructor with a String argument
 	 * @param filepath : The canonical path of the file to be read
 	 */
 	public MyTree(String filepath) {
+		this(filepath, INSERT_MODE);
+	}
+	
+	/**
+	 * Class constructor with a String and an int argument
+	 * @param filepath : The canonical path of the file to be read
+	 * @param mode : The construction mode of the trees (INSERT_MODE, BULK_MODE, PARALLEL_MODE or STREAM_MODE)
+	 */
+	public MyTree(String filepath, int mode) {
+		this(filepath, mode, false);
+	}
+	
+	/**
+	 * Class constructor with a String, an int and a boolean argument
+	 * @param filepath : The canonical path of the file to be read
+	 * @param mode : The construction mode of the trees (INSERT_MODE, BULK_MODE, PARALLEL_MODE or STREAM_MODE)
+	 * @param offHeap : true to also construct and compare the off-heap static tree
+	 */
+	public MyTree(String filepath, int mode, boolean offHeap) {
+		this(filepath, mode, offHeap, 0);
+	}
+	
+	/**
+	 * Class constructor with a String, an int, a boolean and an int argument
+	 * @param filepath : The canonical path of the file to be read
+	 * @param mode : The construction mode of the trees (INSERT_MODE, BULK_MODE, PARALLEL_MODE or STREAM_MODE)
+	 * @param offHeap : true to also construct and compare the off-heap static tree
+	 * @param interleavedStride : 3 or 4 to also construct and compare the static tree with
+	 * 							  interleaved nodes of this stride, 0 to omit it
+	 */
+	public MyTree(String filepath, int mode, boolean offHeap, int interleavedStride) {
 		this.fsys = new FileAccess(filepath);
+		this.constructionMode = mode;
 		
-		// The size of the static tree is set according to the number of items
-		// contained in the file
-		this.bst_arr = new BST_Arr(fsys.getLength());
+		// The initial size of the static trees is set according to the number of items
+		// contained in the file, they grow if more keys are inserted later.
+		// When streaming they start small, the file may not fit in memory
+		int initialSize = (mode == STREAM_MODE) ? 0 : fsys.getLength();
+		this.bst_arr = new BST_Arr(initialSize);
 		this.bst_dyn = new BST_Dyn();
+		this.bst_avl = new BST_AVL();
+		this.rbt_dyn = new RBT_Dyn();
+		this.rbt_arr = new RBT_Arr(initialSize);
+		this.bplus = new BPlusTree();
+		this.bst_splay = new BST_Splay();
+		
+		this.trees = new SearchTree[] {bst_arr, bst_dyn, bst_avl, rbt_dyn, rbt_arr, bplus, bst_splay};
+		this.treeNames = new String[] {"Static", "Dynamic", "AVL", "Red-Black", "Static Red-Black", "B+", "Splay"};
+		
+		if(offHeap) {
+			this.bst_offheap = new BST_OffHeap();
+			addTree(bst_offheap, "Off-heap");
+		}
+		if(interleavedStride != 0) {
+			this.bst_interleaved = new BST_Interleaved(initialSize, interleavedStride);
+			addTree(bst_interleaved, "Interleaved("+interleavedStride+")");
+		}
+	}
+	
+	/**
+	 * Method that adds a tree selected in the arguments to the compared trees
+	 * @param tree : the tree
+	 * @param name : the name of the tree used in the reports
+	 */
+	private void addTree(SearchTree tree, String name) {
+		this.trees = Arrays.copyOf(trees, trees.length+1);
+		this.treeNames = Arrays.copyOf(treeNames, treeNames.length+1);
+		this.trees[trees.length-1] = tree;
+		this.treeNames[treeNames.length-1] = name;
 	}
 	
 	
 	/**
     * The main method called from the system that launches the software.
     * @param args The array of String arguments given in the terminal
-    * At this program no arguments from the console are used
+    * The first argument may select the construction mode of the trees:
+    * "insert" (default), "bulk", "parallel" or "stream". If any argument
+    * is "offheap" the off-heap static tree is also constructed and compared,
+    * and if one is "interleaved" (stride 4) or "interleaved3" the static tree
+    * with interleaved nodes
     */
 	public static void main(String[] args) {
 		
@@ -79,6 +236,28 @@ public class MyTree {
 		 * A string object used to store at every cycle the command the user gives.
 		 */
 		String cmd;
+		
+		/**
+		 * The construction mode selected from the arguments
+		 */
+		int mode = parseMode(args);
+		
+		/**
+		 * True if the off-heap static tree was selected in the arguments
+		 */
+		boolean offHeap = Arrays.stream(args).anyMatch(arg -> arg.equalsIgnoreCase("offheap"));
+		
+		/**
+		 * The stride of the static tree with interleaved nodes selected in the arguments, 0 if none
+		 */
+		int interleavedStride = 0;
+		for(String arg : args) {
+			if(arg.equalsIgnoreCase("interleaved")) {
+				interleavedStride = 4;
+			}else if(arg.equalsIgnoreCase("interleaved3")) {
+				interleavedStride = 3;
+			}
+		}
 
 		
 		//Performing some console print outs
@@ -102,7 +281,7 @@ public class MyTree {
 		
 		System.out.print("  Step 1 | Allocating memory...");
 		//Instantiation of the bonding class of the overall functionality
-		MyTree mt = new MyTree(filepath);
+		MyTree mt = new MyTree(filepath, mode, offHeap, interleavedStride);
 		System.out.println(" > Completed");
 		
 		//Call of the constructTree method, that inserts the items of the file
@@ -159,184 +338,314 @@ public class MyTree {
 	/**
 	 * Method used to test different performance parameters
 	 * of the search,insertion and traversal methods for the
-	 * 3 data structures
+	 * data structures
 	 * 
-	 * There are 4 test cycles performed: 
+	 * There are 7 test cycles performed: 
 	 * 	 1) 100 random key searches
-	 * 	 2) 100 random in-range searches for a range of 100 items
+	 * 	 2) N random key searches
 	 *   3) 100 random in-range searches for a range of 1000 items
-	 *   4) N random key searches
+	 *   4) 100 random in-range searches for a range of 100 items
+	 *   5) 10^6 random key searches, one by one and batched
+	 *   6) 10^6 key searches following a Zipf distribution
+	 *   7) 10^6 random key searches in the compressed sorted array
 	 * 
 	 * For every test cycle a repetitive structure is used to run
-	 * 100 or N searches, a generator of random numbers provides the 
-	 * argument of the search method. 
+	 * its 100, N or 10^6 searches, a generator of random numbers provides
+	 * the argument of the search method. In cycle 6 the keys of the file
+	 * are drawn from a Zipf distribution instead. Cycles 5 to 7 draw all
+	 * their keys before the searches are timed, and cycles 5 and 7 report
+	 * only the times. 
 	 * 
 	 * The elapsed time is calculated using the time a method started running
 	 * and the time it returned. 
 	 * 
 	 * The total number of comparisons performed by each method during
-	 * every test cycle is summed up and the divided by 100 to find
+	 * every test cycle is summed up and the divided by the number of searches to find
 	 * the mean value. 
 	 * 
 	 */
 	
 	private void runTests() {
 		
-		
 		System.out.println("\n-------------------------- Performance Tests ---------------------------");
-		System.out.println("--> Performing 100 random key searches...");
 		
-		int totalComparisonsStatic = 0;
-		int totalComparisonsDynamic = 0;
-		int totalComparisonsArray = 0;
-		
-		long totalTimeStatic = 0L;
-		long totalTimeDynamic = 0L;
-		long totalTimeArray = 0L;
+		randomSearchTest(100);
+		randomSearchTest(fsys.getLength());
+		randomInrangeTest(1000);
+		randomInrangeTest(100);
+		batchedSearchTest(1000000);
+		zipfSearchTest(1000000, 1.0);
+		compressedArrayTest(1000000);
 
-		for(int i=1; i<=100; i++) {			
-			int min = -300000000;
-			int max = 300000000;
-			int randomNum = (int)(Math.random()*((max-min)+1))+min;
-			
-			long startTime1 = System.nanoTime();
-			bst_arr.searchKey(randomNum);
-			long endTime1 = System.nanoTime();
-			
-			totalTimeStatic+=endTime1-startTime1;
-			totalComparisonsStatic+=bst_arr.getComparisons();
+		System.out.println("-------------------------------------------------------------------------\n");
 
-			long startTime2 = System.nanoTime();
-			bst_dyn.searchKey(randomNum);
-			long endTime2 = System.nanoTime();
+	}
+	
+	/**
+	 * Method that performs a number of random key searches in every
+	 * tree and in the sorted array and prints the average number of 
+	 * comparisons and the total time of the searches for each of them
+	 * @param n : the number of searches to be performed
+	 */
+	private void randomSearchTest(int n) {
+		System.out.println("\n--> Performing "+n+" random key searches...");
+		
+		long[] totalComparisons = new long[trees.length];
+		long[] totalTime = new long[trees.length];
+		long totalComparisonsArray = 0;
+		long totalTimeArray = 0L;
+		long totalComparisonsEytzinger = 0;
+		long totalTimeEytzinger = 0L;
+		long totalComparisonsVanEmdeBoas = 0;
+		long totalTimeVanEmdeBoas = 0L;
+		
+		for(int i=1; i<=n; i++) {
+			int randomNum = randomKey();
 			
-			totalTimeDynamic+=endTime2-startTime2;
-			totalComparisonsDynamic+=bst_dyn.getComparisons();
+			for(int t=0; t<trees.length; t++) {
+				long startTime = System.nanoTime();
+				trees[t].searchKey(randomNum);
+				long endTime = System.nanoTime();
+				
+				totalTime[t]+=endTime-startTime;
+				totalComparisons[t]+=trees[t].getComparisons();
+			}
 			
 			this.comparisons = 0;
-			long startTime3 = System.nanoTime();
+			long startTime = System.nanoTime();
 			binarySearchArray(array1D, randomNum, 0, array1D.length-1);
-			long endTime3 = System.nanoTime();
+			long endTime = System.nanoTime();
 			
-			totalTimeArray+=endTime3-startTime3;
+			totalTimeArray+=endTime-startTime;
 			totalComparisonsArray+=this.comparisons;
 			
-		}
-
-		System.out.println("--> Searches Performed");
-		System.out.println("--> Average number of comparisons, in the static tree: "+ totalComparisonsStatic/100);
-		System.out.println("--> Average number of comparisons, in the dynamic tree: "+ totalComparisonsDynamic/100);
-		System.out.println("--> Average number of comparisons, in the Nx1 array: "+ totalComparisonsArray/100);
-		System.out.println("--> Total time for 100 random searches, static tree: "+ totalTimeStatic + " ns");
-		System.out.println("--> Total time for 100 random searches, dynamic tree: "+ totalTimeDynamic + " ns");
-		System.out.println("--> Total time for 100 random searches, Nx1 array: "+ totalTimeArray + " ns");
-		
-		
-		
-		System.out.println("\n--> Performing "+fsys.getLength()+" random key searches...");
-		
-	    totalComparisonsStatic = 0;
-	    totalComparisonsDynamic = 0;
-		totalComparisonsArray = 0;
-		
-	    totalTimeStatic = 0L;
-		totalTimeDynamic = 0L;
-		totalTimeArray = 0L;
-
-		for(int i=1; i<=fsys.getLength(); i++) {
-			int min = -300000000;
-			int max = 300000000;
-			int randomNum = (int)(Math.random()*((max-min)+1))+min;
-			
-			long startTime1 = System.nanoTime();
-			bst_arr.searchKey(randomNum);
-			long endTime1 = System.nanoTime();
+			startTime = System.nanoTime();
+			eytzinger.searchKey(randomNum);
+			endTime = System.nanoTime();
 			
-			totalTimeStatic+=endTime1-startTime1;
-			totalComparisonsStatic+=bst_arr.getComparisons();
-
-			long startTime2 = System.nanoTime();
-			bst_dyn.searchKey(randomNum);
-			long endTime2 = System.nanoTime();
+			totalTimeEytzinger+=endTime-startTime;
+			totalComparisonsEytzinger+=eytzinger.getComparisons();
 			
-			totalTimeDynamic+=endTime2-startTime2;
-			totalComparisonsDynamic+=bst_dyn.getComparisons();
-			
-			this.comparisons = 0;
-			long startTime3 = System.nanoTime();
-			binarySearchArray(array1D, randomNum, 0, array1D.length-1);
-			long endTime3 = System.nanoTime();
-			
-			totalTimeArray+=endTime3-startTime3;
-			totalComparisonsArray+=this.comparisons;
+			startTime = System.nanoTime();
+			vanEmdeBoas.searchKey(randomNum);
+			endTime = System.nanoTime();
 			
+			totalTimeVanEmdeBoas+=endTime-startTime;
+			totalComparisonsVanEmdeBoas+=vanEmdeBoas.getComparisons();
 		}
 
 		System.out.println("--> Searches Performed");
-		System.out.println("--> Average number of comparisons, in the static tree: "+ totalComparisonsStatic/fsys.getLength());
-		System.out.println("--> Average number of comparisons, in the dynamic tree: "+ totalComparisonsDynamic/fsys.getLength());
-		System.out.println("--> Average number of comparisons, in the Nx1 array: "+ totalComparisonsArray/fsys.getLength());
-		System.out.println("--> Total time for N random searches, static tree: "+ totalTimeStatic + " ns");
-		System.out.println("--> Total time for N random searches, dynamic tree: "+ totalTimeDynamic + " ns");
-		System.out.println("--> Total time for N random searches, Nx1 array: "+ totalTimeArray + " ns");
-
-
-		totalComparisonsStatic=0;
-		totalComparisonsDynamic=0;
-		totalComparisonsArray=0;
-		System.out.println("\n--> Performing 100 random inrange searches (range = 1000)... ");
+		for(int t=0; t<trees.length; t++) {
+			System.out.println("--> Average number of comparisons, in the "+treeNames[t]+" tree: "+ totalComparisons[t]/n);
+		}
+		System.out.println("--> Average number of comparisons, in the Nx1 array: "+ totalComparisonsArray/n);
+		System.out.println("--> Average number of comparisons, in the Eytzinger array: "+ totalComparisonsEytzinger/n);
+		System.out.println("--> Average number of comparisons, in the van Emde Boas array: "+ totalComparisonsVanEmdeBoas/n);
+		for(int t=0; t<trees.length; t++) {
+			System.out.println("--> Total time for "+n+" random searches, "+treeNames[t]+" tree: "+ totalTime[t] + " ns");
+		}
+		System.out.println("--> Total time for "+n+" random searches, Nx1 array: "+ totalTimeArray + " ns");
+		System.out.println("--> Total time for "+n+" random searches, Eytzinger array: "+ totalTimeEytzinger + " ns");
+		System.out.println("--> Total time for "+n+" random searches, van Emde Boas array: "+ totalTimeVanEmdeBoas + " ns");
+	}
+	
+	/**
+	 * Method that performs 100 random in-range searches in every
+	 * tree and in the sorted array and prints the average number of 
+	 * comparisons for each of them
+	 * @param range : the size of the range of every search
+	 */
+	private void randomInrangeTest(int range) {
+		System.out.println("\n--> Performing 100 random inrange searches (range = "+range+")... ");
+		
+		long[] totalComparisons = new long[trees.length];
+		long totalComparisonsArray = 0;
+		long totalComparisonsEytzinger = 0;
+		long totalComparisonsVanEmdeBoas = 0;
+		long totalKeys = 0;
+		SortedArray sortedArray = new SortedArray(array1D);
 
 		for(int i=1; i<=100; i++) {
-			int min = -300000000;
-			int max = 300000000;
-			int randomNum1 = (int)(Math.random()*((max-min)+1))+min;
-		
-			bst_arr.inrange(randomNum1, randomNum1+1000);
-			totalComparisonsStatic+=bst_arr.getComparisons();
+			int randomNum1 = randomKey();
 			
-			bst_dyn.inrange(randomNum1, randomNum1+1000);
-			totalComparisonsDynamic+=bst_dyn.getComparisons();
+			for(int t=0; t<trees.length; t++) {
+				trees[t].inrange(randomNum1, randomNum1+range);
+				totalComparisons[t]+=trees[t].getComparisons();
+			}
 
 			this.comparisons=0;
-			searchArrayInrange(array1D, randomNum1, randomNum1+1000);
+			searchArrayInrange(array1D, randomNum1, randomNum1+range);
 			totalComparisonsArray+=this.comparisons;
+			
+			eytzinger.inrange(randomNum1, randomNum1+range);
+			totalComparisonsEytzinger+=eytzinger.getComparisons();
+			
+			vanEmdeBoas.inrange(randomNum1, randomNum1+range);
+			totalComparisonsVanEmdeBoas+=vanEmdeBoas.getComparisons();
+			
+			totalKeys+=sortedArray.countInRange(randomNum1, randomNum1+range);
 		}
+		
 		System.out.println("--> Searches Performed");
-		System.out.println("--> Average number of comparisons, in the static tree (1000 range): "+ totalComparisonsStatic/100);
-		System.out.println("--> Average number of comparisons, in the dynamic tree (1000 range): "+ totalComparisonsDynamic/100);
-		System.out.println("--> Average number of comparisons, in the Nx1 array (1000 range): "+ totalComparisonsArray/100);
-
+		for(int t=0; t<trees.length; t++) {
+			System.out.println("--> Average number of comparisons, in the "+treeNames[t]+" tree ("+range+" range): "+ totalComparisons[t]/100);
+		}
+		System.out.println("--> Average number of comparisons, in the Nx1 array ("+range+" range): "+ totalComparisonsArray/100);
+		System.out.println("--> Average number of comparisons, in the Eytzinger array ("+range+" range): "+ totalComparisonsEytzinger/100);
+		System.out.println("--> Average number of comparisons, in the van Emde Boas array ("+range+" range): "+ totalComparisonsVanEmdeBoas/100);
+		System.out.println("--> Average number of keys found ("+range+" range): "+ totalKeys/100);
+	}
+	
+	/**
+	 * Method that searches for the same random keys with a loop over the
+	 * single key search and with the batched search, in the static tree
+	 * and in the sorted array, and prints the total time of each way
+	 * @param n : the number of keys to be searched
+	 */
+	private void batchedSearchTest(int n) {
+		System.out.println("\n--> Performing "+n+" random key searches one by one and batched...");
 		
+		int[] keys = new int[n];
+		for(int i=0; i<n; i++) {
+			keys[i] = randomKey();
+		}
+		boolean[] found = new boolean[n];
+		boolean[] foundBatched = new boolean[n];
+		SortedArray sortedArray = new SortedArray(array1D);
 		
+		long startTime = System.nanoTime();
+		for(int i=0; i<n; i++) {
+			found[i] = bst_arr.searchKey(keys[i]);
+		}
+		long timeArr = System.nanoTime()-startTime;
 		
-		totalComparisonsStatic=0;
-		totalComparisonsDynamic=0;
-		totalComparisonsArray=0;
-		System.out.println("\n--> Performing 100 random inrange searches (range = 100)... ");
-
-		for(int i=1; i<=100; i++) {
-			int min = -300000000;
-			int max = 300000000;
-			int randomNum1 = (int)(Math.random()*((max-min)+1))+min;
+		startTime = System.nanoTime();
+		bst_arr.searchKeys(keys, foundBatched);
+		long timeArrBatched = System.nanoTime()-startTime;
+		boolean agree = Arrays.equals(found, foundBatched);
 		
-			bst_arr.inrange(randomNum1, randomNum1+100);
-			totalComparisonsStatic+=bst_arr.getComparisons();
-			
-			bst_dyn.inrange(randomNum1, randomNum1+100);
-			totalComparisonsDynamic+=bst_dyn.getComparisons();
-			
-			this.comparisons=0;
-			searchArrayInrange(array1D, randomNum1, randomNum1+100);
-			totalComparisonsArray+=this.comparisons;
+		startTime = System.nanoTime();
+		for(int i=0; i<n; i++) {
+			found[i] = binarySearchArray(array1D, keys[i], 0, array1D.length-1) >= 0;
 		}
+		long timeArray = System.nanoTime()-startTime;
 		
-		System.out.println("--> Searches Performed");		
-		System.out.println("--> Average number of comparisons, in the static tree (100 range): "+ totalComparisonsStatic/100);
-		System.out.println("--> Average number of comparisons, in the dynamic tree (100 range): "+ totalComparisonsDynamic/100);
-		System.out.println("--> Average number of comparisons, in the Nx1 array (100 range): "+ totalComparisonsArray/100);
-
-		System.out.println("-------------------------------------------------------------------------\n");
-
+		startTime = System.nanoTime();
+		sortedArray.searchKeys(keys, foundBatched);
+		long timeArrayBatched = System.nanoTime()-startTime;
+		agree = agree && Arrays.equals(found, foundBatched);
+		
+		System.out.println("--> Searches Performed"+(agree ? "" : ", THE RESULTS DIFFER"));
+		System.out.println("--> Total time for "+n+" random searches, Static tree, one by one: "+ timeArr + " ns");
+		System.out.println("--> Total time for "+n+" random searches, Static tree, batched: "+ timeArrBatched + " ns");
+		System.out.println("--> Total time for "+n+" random searches, Nx1 array, one by one: "+ timeArray + " ns");
+		System.out.println("--> Total time for "+n+" random searches, Nx1 array, batched: "+ timeArrayBatched + " ns");
+	}
+	
+	/**
+	 * Method that searches for the same random keys in the sorted array and
+	 * in the compressed sorted array built from it, and prints the memory
+	 * per key and the total time of the searches for each of them
+	 * @param n : the number of keys to be searched
+	 */
+	private void compressedArrayTest(int n) {
+		System.out.println("\n--> Performing "+n+" random key searches in the compressed array...");
+		
+		CompressedSortedArray compressed = new CompressedSortedArray(array1D);
+		int[] keys = new int[n];
+		for(int i=0; i<n; i++) {
+			keys[i] = randomKey();
+		}
+		boolean[] found = new boolean[n];
+		boolean[] foundCompressed = new boolean[n];
+		
+		long startTime = System.nanoTime();
+		for(int i=0; i<n; i++) {
+			found[i] = binarySearchArray(array1D, keys[i], 0, array1D.length-1) >= 0;
+		}
+		long timeArray = System.nanoTime()-startTime;
+		
+		startTime = System.nanoTime();
+		for(int i=0; i<n; i++) {
+			foundCompressed[i] = compressed.contains(keys[i]);
+		}
+		long timeCompressed = System.nanoTime()-startTime;
+		boolean agree = Arrays.equals(found, foundCompressed);
+		
+		double bytesPerKey = (double)compressed.getCompressedBytes() / Math.max(1, array1D.length);
+		System.out.println("--> Searches Performed"+(agree ? "" : ", THE RESULTS DIFFER"));
+		System.out.println("--> Memory per key, Nx1 array: 4 bytes");
+		System.out.printf("--> Memory per key, compressed array: %.2f bytes%n", bytesPerKey);
+		System.out.println("--> Total time for "+n+" random searches, Nx1 array: "+ timeArray + " ns");
+		System.out.println("--> Total time for "+n+" random searches, compressed array: "+ timeCompressed + " ns");
+	}
+	
+	/**
+	 * Method that performs searches for keys of the file drawn from a Zipf
+	 * distribution in every tree and prints the average number of comparisons
+	 * and the total time of the searches for each of them.
+	 * 
+	 * The keys are shuffled before they are ranked, so that the hot keys are
+	 * spread over the whole tree. Such a workload favours the splay tree,
+	 * which moves the hot keys close to the root.
+	 * @param n : the number of searches to be performed
+	 * @param exponent : the exponent of the Zipf distribution
+	 */
+	private void zipfSearchTest(int n, double exponent) {
+		System.out.println("\n--> Performing "+n+" Zipfian key searches (s = "+exponent+")...");
+		if(array1D.length == 0) {
+			System.out.println("--> No keys to search");
+			return;
+		}
+		
+		int[] hotKeys = array1D.clone();
+		Random random = new Random(42);
+		for(int i=hotKeys.length-1; i>0; i--) {
+			int j = random.nextInt(i+1);
+			int tmp = hotKeys[i];
+			hotKeys[i] = hotKeys[j];
+			hotKeys[j] = tmp;
+		}
+		
+		ZipfDistribution zipf = new ZipfDistribution(hotKeys.length, exponent, 42);
+		int[] keys = new int[n];
+		for(int i=0; i<n; i++) {
+			keys[i] = hotKeys[zipf.next()];
+		}
+		int hot = Math.min(1000, hotKeys.length);
+		System.out.printf("--> The %d hottest keys get %.1f%% of the searches%n", hot, 100*zipf.getCumulativeProbability(hot-1));
+		
+		long[] totalComparisons = new long[trees.length];
+		long[] totalTime = new long[trees.length];
+		
+		for(int t=0; t<trees.length; t++) {
+			for(int i=0; i<n; i++) {
+				long startTime = System.nanoTime();
+				trees[t].searchKey(keys[i]);
+				long endTime = System.nanoTime();
+				
+				totalTime[t]+=endTime-startTime;
+				totalComparisons[t]+=trees[t].getComparisons();
+			}
+		}
+		
+		System.out.println("--> Searches Performed");
+		for(int t=0; t<trees.length; t++) {
+			System.out.printf("--> Average number of comparisons, in the %s tree: %.2f%n", treeNames[t], (double)totalComparisons[t]/n);
+		}
+		for(int t=0; t<trees.length; t++) {
+			System.out.println("--> Total time for "+n+" Zipfian searches, "+treeNames[t]+" tree: "+ totalTime[t] + " ns");
+		}
+	}
+	
+	/**
+	 * Method that generates a random key within the range of the keys of the test files
+	 * @return int : the random key
+	 */
+	private int randomKey() {
+		int min = -300000000;
+		int max = 300000000;
+		return (int)(Math.random()*((max-min)+1))+min;
 	}
 	
 	/**
@@ -357,22 +666,18 @@ public class MyTree {
 		System.out.print(" Enter a key to be inserted in the trees: ");		
 		int key = (int)in.nextDouble();
 		
-		System.out.println("--> Inserting key in the static tree...");
-		long startTime1 = System.nanoTime();
-		bst_arr.insertKey(key);
-		long endTime1 = System.nanoTime();
-		System.out.println("--> Time elapsed for static tree insertion: " + (endTime1 - startTime1) +" ns");
-		System.out.println("--> Number of comparisons performed: " +bst_arr.getComparisons());
-
-		System.out.println("");
-
-		
-		System.out.println("--> Inserting key in the dynamic tree...");
-		long startTime2 = System.nanoTime();
-		bst_dyn.insertKey(key);
-		long endTime2 = System.nanoTime();
-		System.out.println("--> Time elapsed for dynamic tree insertion: " + (endTime2 - startTime2) +" ns");
-		System.out.println("--> Number of comparisons performed: " +bst_dyn.getComparisons());
+		for(int t=0; t<trees.length; t++) {
+			if(t>0) {
+				System.out.println("");
+			}
+			
+			System.out.println("--> Inserting key in the "+treeNames[t]+" tree...");
+			long startTime = System.nanoTime();
+			trees[t].insertKey(key);
+			long endTime = System.nanoTime();
+			System.out.println("--> Time elapsed for "+treeNames[t]+" tree insertion: " + (endTime - startTime) +" ns");
+			System.out.println("--> Number of comparisons performed: " +trees[t].getComparisons());
+		}
 		
 		System.out.println("-----------------------------------------------------------------\n");
 	}
@@ -395,30 +700,22 @@ public class MyTree {
 		
 		int key = (int)in.nextDouble();
 		
-		System.out.println("--> Searching for the key in the static tree...");
-		long startTime1 = System.nanoTime();
-		if(bst_arr.searchKey(key)) {
-			System.out.println("--> Result: Key found!");
-		}else {
-			System.out.println("--> Result: Key not found...");
-		}
-		long endTime1 = System.nanoTime();
-		System.out.println("--> Time elapsed for static tree search: " + (endTime1 - startTime1) +" ns");
-		System.out.println("--> Number of comparisons performed: " +bst_arr.getComparisons());
-
-		System.out.println("");
-		
-		System.out.println("--> Searching for the key in the dynamic tree...");
-		long startTime2 = System.nanoTime();
-		
-		if(bst_dyn.searchKey(key)) {
-			System.out.println("--> Result: Key found!");
-		}else {
-			System.out.println("--> Result: Key not found...");
+		for(int t=0; t<trees.length; t++) {
+			if(t>0) {
+				System.out.println("");
+			}
+			
+			System.out.println("--> Searching for the key in the "+treeNames[t]+" tree...");
+			long startTime = System.nanoTime();
+			if(trees[t].searchKey(key)) {
+				System.out.println("--> Result: Key found!");
+			}else {
+				System.out.println("--> Result: Key not found...");
+			}
+			long endTime = System.nanoTime();
+			System.out.println("--> Time elapsed for "+treeNames[t]+" tree search: " + (endTime - startTime) +" ns");
+			System.out.println("--> Number of comparisons performed: " +trees[t].getComparisons());
 		}
-		long endTime2 = System.nanoTime();
-		System.out.println("--> Time elapsed for dynamic tree search: " + (endTime2 - startTime2) +" ns");
-		System.out.println("--> Number of comparisons performed: " +bst_dyn.getComparisons());
 		
 		System.out.println("-----------------------------------------------------------------\n");
 		
@@ -437,22 +734,18 @@ public class MyTree {
 		
 		System.out.println("\n---------------------- Inorder Traversal ------------------------");
 
-		System.out.println("--> Static Tree inorder traversal running...");
-		long startTime2 = System.nanoTime();
-		System.out.print("--> Result:   ");
-	    bst_arr.inorder();
-		long endTime2 = System.nanoTime();
-		System.out.println("\n--> Time elapsed for static tree traversal: " + (endTime2 - startTime2) +" ns");
-		
-		System.out.println("");
-	
-		System.out.println("--> Dynamic Tree inorder traversal running...");
-		System.out.print("--> Result:   ");
-		long startTime1 = System.nanoTime();
-		bst_dyn.inorder();
-		long endTime1 = System.nanoTime();
-		
-		System.out.println("\n--> Time elapsed for dynamic tree traversal: " + (endTime1 - startTime1) +" ns");
+		for(int t=0; t<trees.length; t++) {
+			if(t>0) {
+				System.out.println("");
+			}
+			
+			System.out.println("--> "+treeNames[t]+" Tree inorder traversal running...");
+			System.out.print("--> Result:   ");
+			long startTime = System.nanoTime();
+			trees[t].inorder();
+			long endTime = System.nanoTime();
+			System.out.println("\n--> Time elapsed for "+treeNames[t]+" tree traversal: " + (endTime - startTime) +" ns");
+		}
 		
 		System.out.println("-----------------------------------------------------------------");
 	}
@@ -478,15 +771,15 @@ public class MyTree {
 		System.out.print("Enter upper bound: ");		
 		int upper = (int)in.nextDouble();
 
-		System.out.println("\n--> Performing in-range search in the static tree...");
-		System.out.print("--> Result:    ");
-		bst_arr.inrange(lower,upper);
-		
-		System.out.println("");
-
-		System.out.println("\n--> Performing in-range search in the dynamic tree...");
-		System.out.print("--> Result:    ");
-		bst_dyn.inrange(lower,upper);
+		for(int t=0; t<trees.length; t++) {
+			if(t>0) {
+				System.out.println("");
+			}
+			
+			System.out.println("\n--> Performing in-range search in the "+treeNames[t]+" tree...");
+			System.out.print("--> Result:    ");
+			trees[t].inrange(lower,upper);
+		}
 		System.out.println("\n----------------------------------------------------------------------\n");
 	}
 	
@@ -496,74 +789,150 @@ public class MyTree {
 	 * using the keys contained in the file provideed
 	 * 
 	 * First using the FileSystem object the numbers
-	 * are being read from the file and a Vector of Integers containing
+	 * are being read from the file and an array of ints containing
 	 * them is returned. 
 	 * 
-	 * For each number in the vector an insertion is made in each tree.
+	 * For each number in the array an insertion is made in each tree.
+	 * In bulk mode the numbers are sorted first and each tree is 
+	 * constructed directly from the sorted numbers. In parallel mode the 
+	 * numbers are sorted in parallel and the static tree is also built with
+	 * 1, 2, 4... threads up to the number of cores, to report the speedup.
+	 * In stream mode the file is never read as a whole, its numbers are 
+	 * streamed in chunks straight into each tree.
 	 * 
 	 * For all the insertions an average number of comparisons performed is 
 	 * calculated. 
 	 * 
-	 * The 
-	 * 
 	 * For the whole process of insertion of all the numbers, the elapsed time
 	 * is recorded. 
 	 * 
 	 * In the end using an inorder traversal through the Static BST we 
-	 * construct the single dimensional array.
+	 * construct the single dimensional array and the Eytzinger and the van Emde Boas
+	 * indexes from it.
 	 * 
 	 * The performance results are shown to the user.
 	 * 
 	 */	
 	private void constructTree() {
-		Vector<Integer> listOfNumbers;
+		int[] listOfNumbers = null;
+		long numberOfKeys = fsys.getLongLength();
+		boolean sorted = (constructionMode == BULK_MODE || constructionMode == PARALLEL_MODE);
 		
-		System.out.print("  Step 2 | Reading the file....");
-		listOfNumbers = fsys.getNumbers();
-		System.out.println(" > Completed");
+		if(constructionMode == STREAM_MODE) {
+			System.out.println("  Step 2 | Streaming the file.. > "+FileAccess.DEFAULT_CHUNK_SIZE+" numbers per chunk");
+		}else {
+			System.out.print("  Step 2 | Reading the file....");
+			listOfNumbers = fsys.getNumbers();
+			numberOfKeys = listOfNumbers.length;
+			System.out.println(" > Completed");
+		}
 
 		System.out.println("  Step 3 | Constructing trees.. > Running");
-		System.out.println("  Info   | "+ listOfNumbers.size() + " numbers will be used");
+		System.out.println("  Info   | "+ numberOfKeys + " numbers will be used");
+		
+		long[] totalComparisons = new long[trees.length];
+		long[] elapsedTime = new long[trees.length];
+		int[] sortedKeys = null;
 		
-		System.out.print("  Step 3.1 | Static tree.......");
-		int totalComparisonsStatic = 0;
-		long startTime1 = System.nanoTime();
-		for(Integer e : listOfNumbers) {
-			bst_arr.insertKey(e);
-			totalComparisonsStatic+=bst_arr.getComparisons();
+		if(sorted) {
+			System.out.print("  Step 3.0 | Sorting the keys......");
+			long startTime = System.nanoTime();
+			sortedKeys = listOfNumbers;
+			if(constructionMode == PARALLEL_MODE) {
+				Arrays.parallelSort(sortedKeys);
+			}else {
+				Arrays.sort(sortedKeys);
+			}
+			long endTime = System.nanoTime();
+			System.out.println(" > Completed ("+(endTime-startTime)+" ns)");
 		}
-		long endTime1 = System.nanoTime();
-		System.out.println(" > Completed");
 		
+		for(int t=0; t<trees.length; t++) {
+			String label = treeNames[t]+" tree";
+			System.out.print("  Step 3."+(t+1)+" | "+label+".".repeat(Math.max(1, 22-label.length())));
+			
+			long startTime = System.nanoTime();
+			if(sorted) {
+				// The repeated keys are kept, the trees that ignore them on insertion drop them
+				trees[t].bulkLoad(sortedKeys);
+			}else if(constructionMode == STREAM_MODE) {
+				SearchTree tree = trees[t];
+				int index = t;
+				fsys.streamNumbers(key -> {
+					tree.insertKey(key);
+					totalComparisons[index]+=tree.getComparisons();
+				});
+			}else {
+				for(int e : listOfNumbers) {
+					trees[t].insertKey(e);
+					totalComparisons[t]+=trees[t].getComparisons();
+				}
+			}
+			long endTime = System.nanoTime();
+			elapsedTime[t] = endTime-startTime;
+			
+			System.out.println(" > Completed");
+		}
 		
-		System.out.print("  Step 3.2 | Dynamic tree......");
-		int totalComparisonsDynamic = 0;
-		long startTime2 = System.nanoTime();
-		for(Integer e: listOfNumbers) {
-			bst_dyn.insertKey(e);
-			totalComparisonsDynamic+=bst_dyn.getComparisons();
+		if(constructionMode == PARALLEL_MODE) {
+			parallelBuild(sortedKeys);
 		}
-		long endTime2 = System.nanoTime();
-		System.out.println(" > Completed");
 		
 		this.array1D = bst_arr.inorderToArray();
-		
-        double etSeconds1 = (double) (endTime1-startTime1) / 1_000_000_000;
-        double etSeconds2 = (double) (endTime2-startTime2) / 1_000_000_000;      
-
+		this.eytzinger = new EytzingerIndex(array1D);
+		this.vanEmdeBoas = new VanEmdeBoasIndex(array1D);
 		
 		System.out.println("---------------------------------------------");
-		System.out.println("  Static Tree ET : " + (endTime1-startTime1) + " ns | "+ etSeconds1+" s");
-		System.out.println("  Dynamic Tree ET: " + (endTime2-startTime2) + " ns | "+ etSeconds2+" s \n");
+		for(int t=0; t<trees.length; t++) {
+			double etSeconds = (double) elapsedTime[t] / 1_000_000_000;
+			System.out.println("  "+treeNames[t]+" Tree ET: " + elapsedTime[t] + " ns | "+ etSeconds+" s");
+		}
+		System.out.println("");
 		
-		System.out.println("  Average time per key, Static Tree: " +(endTime1-startTime1)/fsys.getLength() +" ns ");
-		System.out.println("  Average time per key, Dynamic Tree: " +(endTime2-startTime2)/fsys.getLength() +" ns ");
-	
-		System.out.println("  Average number of comparisons, Static Tree: " + totalComparisonsStatic/listOfNumbers.size());
-		System.out.println("  Average number of comparisons, Dynamic Tree: " + totalComparisonsDynamic/listOfNumbers.size());
+		for(int t=0; t<trees.length; t++) {
+			System.out.println("  Average time per key, "+treeNames[t]+" Tree: " +elapsedTime[t]/Math.max(1, numberOfKeys) +" ns ");
+		}
+		if(!sorted) {
+			for(int t=0; t<trees.length; t++) {
+				System.out.println("  Average number of comparisons, "+treeNames[t]+" Tree: " + totalComparisons[t]/Math.max(1, numberOfKeys));
+			}
+		}
+		if(bst_offheap != null) {
+			System.out.println("  Off-heap Tree memory: "+bst_offheap.getAllocatedBytes()+" bytes outside of the heap");
+		}
 	}
 	
 	
+	/**
+	 * Method that builds the static tree from the sorted keys using 1, 2, 4... 
+	 * threads up to the number of cores of the system and prints the time 
+	 * of each build and its speedup over the single threaded build
+	 * @param sortedKeys : the keys in ascending order
+	 */
+	private void parallelBuild(int[] sortedKeys) {
+		System.out.println("  Step 3."+(trees.length+1)+" | Parallel static tree.. > Running");
+		
+		int cores = Runtime.getRuntime().availableProcessors();
+		long singleThreadTime = 0L;
+		int threads = 1;
+		
+		while(true) {
+			long startTime = System.nanoTime();
+			bst_arr.parallelBulkLoad(sortedKeys, threads);
+			long elapsedTime = System.nanoTime()-startTime;
+			
+			if(threads == 1) {
+				singleThreadTime = elapsedTime;
+			}
+			System.out.printf("  Info   | %3d thread(s): %12d ns | speedup x%.2f%n", threads, elapsedTime, (double)singleThreadTime/elapsedTime);
+			
+			if(threads == cores) {
+				break;
+			}
+			threads = Math.min(threads*2, cores);
+		}
+	}
+	
 	/**
 	 * Method that searches in binary way in an array within a given range
 	 * for a specific key
@@ -575,7 +944,7 @@ public class MyTree {
 	 * 				 or the pos of the key if it was finally found.
 	 * @from GeeksForGeeks
 	 */
-	private int binarySearchArray(int[] A , int value, int low, int high) {
+	int binarySearchArray(int[] A , int value, int low, int high) {
 		
 		if (high < low)  {
 			this.comparisons++;
@@ -607,7 +976,7 @@ public class MyTree {
 	 * @return : not used
 	 * @from StackOverflow
 	 */
-	private int searchArrayInrange(int[] arr, int start, int end) {
+	int searchArrayInrange(int[] arr, int start, int end) {
 	    int leftIndex = searchLeft(arr, start);
 	    int rightIndex = searchRight(arr, end);
 
@@ -641,7 +1010,7 @@ public class MyTree {
 	    	this.comparisons++;
 	        int mid = lo + (hi - lo) / 2;
 
-	        if (arr[mid] == start && arr[mid -1] < start) {
+	        if (arr[mid] == start && (mid == 0 || arr[mid -1] < start)) {
 	            this.comparisons+=2;
 	        	return mid - 1;
 	        }
@@ -673,7 +1042,7 @@ public class MyTree {
 	    	this.comparisons++;
 	        int mid = lo + (hi - lo) / 2;
 
-	        if (arr[mid] == end && arr[mid+1] > end) {
+	        if (arr[mid] == end && (mid == arr.length-1 || arr[mid+1] > end)) {
 	            this.comparisons+=2;
 	        	return mid;
 	        }
@@ -688,6 +1057,26 @@ public class MyTree {
 	    return -1;
 	}
 
+	/**
+	 * Method that selects the construction mode of the trees
+	 * from the arguments given in the terminal
+	 * @param args The array of String arguments given in the terminal
+	 * @return int : BULK_MODE if the first argument is "bulk", PARALLEL_MODE if 
+	 * 				 it is "parallel", STREAM_MODE if it is "stream", else INSERT_MODE
+	 */
+	private static int parseMode(String[] args) {
+		if(args.length > 0 && args[0].equalsIgnoreCase("bulk")) {
+			return BULK_MODE;
+		}
+		if(args.length > 0 && args[0].equalsIgnoreCase("parallel")) {
+			return PARALLEL_MODE;
+		}
+		if(args.length > 0 && args[0].equalsIgnoreCase("stream")) {
+			return STREAM_MODE;
+		}
+		return INSERT_MODE;
+	}
+	
 	/**
      * Method that is used to check if a file provided
      * meets some minimum requirements such as:
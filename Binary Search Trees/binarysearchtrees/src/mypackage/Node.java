@@ -24,6 +24,16 @@ public class Node {
 	 */
 	private Node right;
 	
+	/**
+	 * The height of the subtree rooted at the node, used by the balanced trees
+	 */
+	private int height;
+	
+	/**
+	 * The number of nodes of the subtree rooted at the node, used by the order statistics of BST_Dyn
+	 */
+	private int size;
+	
 	
 	/**
 	 * Class constructor with int argument
@@ -33,6 +43,8 @@ public class Node {
 		this.key = i;
 		this.left = null;
 		this.right = null;
+		this.height = 1;
+		this.size = 1;
 	}
 
 	public int getKey() {
@@ -59,4 +71,20 @@ public class Node {
 		this.right = right;
 	}
 
+	public int getHeight() {
+		return height;
+	}
+
+	public void setHeight(int height) {
+		this.height = height;
+	}
+
+	public int getSize() {
+		return size;
+	}
+
+	public void setSize(int size) {
+		this.size = size;
+	}
+
 }
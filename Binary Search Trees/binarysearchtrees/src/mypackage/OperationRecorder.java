@@ -0,0 +1,77 @@
+package mypackage;
+
+/**
+ * Interface for the recorders of the operations performed by the
+ * data structures
+ *
+ * After each operation a structure reports to its recorder the type of
+ * the operation, the number of comparisons and of nodes (or buckets)
+ * visited, counted in local variables during the operation, and the
+ * time the operation started.
+ *
+ * The structures use the NONE recorder by default. Its methods do nothing,
+ * so when no recorder is set the JIT compiler removes the calls and the
+ * operations pay nothing for the instrumentation.
+ *
+ * @author Dimitris Petrou | 2018030070 | ece@tuc
+ *
+ */
+public interface OperationRecorder {
+
+	/**
+	 * The types of operations recorded
+	 */
+	public static final int INSERT = 0;
+	public static final int SEARCH = 1;
+	public static final int DELETE = 2;
+	public static final int INRANGE = 3;
+
+	/**
+	 * The names of the types of operations, in the order of their constants
+	 */
+	public static final String[] OPERATIONS = {"insert", "search", "delete", "inrange"};
+
+	/**
+	 * The recorder that ignores all the operations, used by default
+	 */
+	public static final OperationRecorder NONE = new OperationRecorder() {
+
+		public boolean isEnabled() {
+			return false;
+		}
+
+		public long startTime() {
+			return 0L;
+		}
+
+		public void record(int operation, int comparisons, int visits, long startTime) {
+		}
+	};
+
+	/**
+	 * Method that tells if the recorder keeps the operations, so that a
+	 * structure can skip any extra work needed only for recording
+	 * @return boolean : true if the operations are recorded
+	 */
+	public default boolean isEnabled() {
+		return true;
+	}
+
+	/**
+	 * Method called when an operation begins
+	 * @return long : the time the operation started in nanoseconds
+	 */
+	public default long startTime() {
+		return System.nanoTime();
+	}
+
+	/**
+	 * Method called when an operation ends
+	 * @param operation : the type of the operation (INSERT, SEARCH, DELETE or INRANGE)
+	 * @param comparisons : the number of comparisons performed
+	 * @param visits : the number of nodes or buckets visited
+	 * @param startTime : the value returned by startTime() when the operation began
+	 */
+	public void record(int operation, int comparisons, int visits, long startTime);
+
+}
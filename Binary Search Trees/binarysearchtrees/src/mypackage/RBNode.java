@@ -0,0 +1,90 @@
+package mypackage;
+
+/**
+ * This class is used to create objects representing 
+ * the nodes of the dynamic red-black tree
+ * @author Dimitris Petrou
+ *
+ */
+public class RBNode {
+	
+	/**
+	 * The integer key of the node
+	 */
+	private int key;
+	
+	/**
+	 * A RBNode type pointer to the left child of the node
+	 */
+	private RBNode left;
+	
+	/**
+	 * A RBNode type pointer to the right child of the node
+	 */
+	private RBNode right;
+	
+	/**
+	 * A RBNode type pointer to the parent of the node
+	 */
+	private RBNode parent;
+	
+	/**
+	 * The color bit of the node, true for red and false for black
+	 */
+	private boolean red;
+	
+	
+	/**
+	 * Class constructor with int argument.
+	 * A new node is always colored red
+	 * @param i : The key of the node to be created
+	 */
+	public RBNode(int i) {
+		this.key = i;
+		this.left = null;
+		this.right = null;
+		this.parent = null;
+		this.red = true;
+	}
+
+	public int getKey() {
+		return key;
+	}
+
+	public void setKey(int key) {
+		this.key = key;
+	}
+
+	public RBNode getLeft() {
+		return left;
+	}
+
+	public void setLeft(RBNode left) {
+		this.left = left;
+	}
+
+	public RBNode getRight() {
+		return right;
+	}
+
+	public void setRight(RBNode right) {
+		this.right = right;
+	}
+
+	public RBNode getParent() {
+		return parent;
+	}
+
+	public void setParent(RBNode parent) {
+		this.parent = parent;
+	}
+
+	public boolean isRed() {
+		return red;
+	}
+
+	public void setRed(boolean red) {
+		this.red = red;
+	}
+
+}
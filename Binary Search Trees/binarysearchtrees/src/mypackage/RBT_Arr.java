@@ -0,0 +1,358 @@
+package mypackage;
+import java.util.Arrays;
+
+/**
+ * This class implements a red-black tree
+ * using static memory allocation before its construction
+ * 
+ * Like the BST_Arr class, it uses static arrays for storing 
+ * the key of each node and the in-between connections. Since
+ * the balancing needs to move upwards, the parent of every
+ * node is stored too, while the color bit of each node is kept
+ * in a boolean array.
+ * 
+ * For the insertion of new keys in the tree it uses
+ * an imaginary stack to mark the availability of the empty 
+ * array fields. When all the fields are used the arrays
+ * grow geometrically like in the BST_Arr class
+ * 
+ * @author Dimitris Petrou | 2018030070 | ece@tuc
+ * 
+ * @from Introduction to Algorithms (CLRS)
+ *
+ */
+public class RBT_Arr implements SearchTree {
+	
+	/**
+	 * The array for storing the keys of the nodes
+	 */
+	private int[] info;
+	
+	/**
+	 * The array for storing references to left hand side children of the nodes
+	 */
+	private int[] left;
+	
+	/**
+	 * The array for storing references to right hand side children of the nodes
+	 */
+	private int[] right;
+	
+	/**
+	 * The array for storing references to the parents of the nodes
+	 */
+	private int[] parent;
+	
+	/**
+	 * The array for storing the color bit of the nodes, true for red and false for black
+	 */
+	private boolean[] red;
+	
+	/**
+	 * A member variable for storing the pos of the root in the array
+	 */
+	private int root;
+	
+	/**
+	 * A member variable which keeps track of the next available position in the arrays
+	 */
+	private int avail;
+	
+	/**
+	 * A member variable corresponding to the size of the tree to be constructed
+	 */
+	private int treeSize;
+	
+	/**
+	 * A conventional null value that equals to -1
+	 */
+	private static final int NULL = -1;
+	
+	/**
+	 * A member variable used to track the number of comparisons performed by each method
+	 */
+	private int comparisons;
+	
+	
+	/**
+	 * Class constructor with int argument
+	 * @param ts : the expected number of nodes of the tree, used as the initial capacity
+	 */
+	public RBT_Arr(int ts) {
+		this.treeSize = Math.max(ts, 1);
+		
+		this.info = new int[treeSize];
+		this.left = new int[treeSize];
+		this.right = new int[treeSize];
+		this.parent = new int[treeSize];
+		this.red = new boolean[treeSize];
+		
+		this.root = NULL;
+		this.avail = 0;
+		this.comparisons = 0;
+	}
+	
+	public int getComparisons() {
+		return this.comparisons;
+	}
+	
+	/**
+	 * Method that removes all the keys of the tree, the cells
+	 * of the arrays are used again from the first one
+	 */
+	public void clear() {
+		this.root = NULL;
+		this.avail = 0;
+		this.comparisons = 0;
+	}
+	
+	/**
+	 * Method that "eats" one cell of the arrays and returns its pos. 
+	 * If all the cells are used the arrays grow before
+	 * @return int the pos of the available cell
+	 */
+	private int useAvailCell() {
+		if(this.avail == this.treeSize) {
+			grow();
+		}
+		return avail++;
+	}
+	
+	/**
+	 * Method that doubles the capacity of the arrays, keeping
+	 * the nodes at the same positions
+	 */
+	private void grow() {
+		this.treeSize = treeSize*2;
+		
+		this.info = Arrays.copyOf(info, treeSize);
+		this.left = Arrays.copyOf(left, treeSize);
+		this.right = Arrays.copyOf(right, treeSize);
+		this.parent = Arrays.copyOf(parent, treeSize);
+		this.red = Arrays.copyOf(red, treeSize);
+	}
+	
+	
+	//Balancing methods
+	
+	private boolean isRed(int x) {
+		return x != NULL && red[x];
+	}
+	
+	/**
+	 * Method that rotates the subtree rooted at x to the left.
+	 * The right child of x takes its place and x becomes its left child
+	 * @param x : the index of the root of the subtree
+	 */
+	private void rotateLeft(int x) {
+		int y = right[x];
+		
+		right[x] = left[y];
+		if(left[y] != NULL) {
+			parent[left[y]] = x;
+		}
+		
+		parent[y] = parent[x];
+		if(parent[x] == NULL) {
+			root = y;
+		}else if(x == left[parent[x]]) {
+			left[parent[x]] = y;
+		}else {
+			right[parent[x]] = y;
+		}
+		
+		left[y] = x;
+		parent[x] = y;
+	}
+	
+	/**
+	 * Method that rotates the subtree rooted at x to the right.
+	 * The left child of x takes its place and x becomes its right child
+	 * @param x : the index of the root of the subtree
+	 */
+	private void rotateRight(int x) {
+		int y = left[x];
+		
+		left[x] = right[y];
+		if(right[y] != NULL) {
+			parent[right[y]] = x;
+		}
+		
+		parent[y] = parent[x];
+		if(parent[x] == NULL) {
+			root = y;
+		}else if(x == right[parent[x]]) {
+			right[parent[x]] = y;
+		}else {
+			left[parent[x]] = y;
+		}
+		
+		right[y] = x;
+		parent[x] = y;
+	}
+	
+	/**
+	 * Method that restores the red-black properties after the insertion
+	 * of the red node z. It follows exactly the same steps as the 
+	 * insertFixup method of the RBT_Dyn class using indices instead of references
+	 * @param z : the index of the node that was inserted
+	 */
+	private void insertFixup(int z) {
+		while(isRed(parent[z])) {
+			int p = parent[z];
+			int g = parent[p];
+			
+			if(p == left[g]) {
+				int uncle = right[g];
+				
+				if(isRed(uncle)) {
+					red[p] = false;
+					red[uncle] = false;
+					red[g] = true;
+					z = g;
+				}else {
+					if(z == right[p]) {
+						z = p;
+						rotateLeft(z);
+						p = parent[z];
+					}
+					red[p] = false;
+					red[g] = true;
+					rotateRight(g);
+				}
+			}else {
+				int uncle = left[g];
+				
+				if(isRed(uncle)) {
+					red[p] = false;
+					red[uncle] = false;
+					red[g] = true;
+					z = g;
+				}else {
+					if(z == left[p]) {
+						z = p;
+						rotateRight(z);
+						p = parent[z];
+					}
+					red[p] = false;
+					red[g] = true;
+					rotateLeft(g);
+				}
+			}
+		}
+		red[root] = false;
+	}
+	
+	
+	//Tree methods
+	
+	/**
+	 * Method for inserting a key in the static red-black tree
+	 * 
+	 * Iteratively we move through the nodes of the tree like in
+	 * a plain BST to find the parent of the new node. Duplicate keys
+	 * are ignored. 
+	 * 
+	 * Then it requests a position to store the new node (the arrays 
+	 * grow if there is no available cell). The new red node is stored,
+	 * attached to the parent and the red-black properties are restored.
+	 * 
+	 * @param key The key to be inserted
+	 */
+	public void insertKey(int key) {
+		this.comparisons = 0;
+		
+		int p = NULL;
+		int x = root;
+		
+		while(x != NULL) {
+			p = x;
+			if(key < info[x]) {
+				this.comparisons++;
+				x = left[x];
+			}else if(key > info[x]) {
+				this.comparisons+=2;
+				x = right[x];
+			}else {
+				this.comparisons+=2;
+				return;
+			}
+		}
+		
+		int pos = useAvailCell();
+		
+		info[pos] = key;
+		left[pos] = NULL;
+		right[pos] = NULL;
+		parent[pos] = p;
+		red[pos] = true;
+		
+		if(p == NULL) {
+			root = pos;
+		}else if(key < info[p]) {
+			left[p] = pos;
+		}else {
+			right[p] = pos;
+		}
+		
+		insertFixup(pos);
+	}
+	
+	public void inorder() {
+		inorderRec(root);
+	}
+	
+	private void inorderRec(int x) {
+		if(x != NULL) {
+			inorderRec(left[x]);
+			System.out.print(info[x]+"   ");
+			inorderRec(right[x]);
+		}
+	}
+	
+	public boolean searchKey(int key) {
+		int curNode = this.root;
+		this.comparisons = 0;
+		
+		while(curNode != NULL) {
+			if(info[curNode]==key) {
+				this.comparisons++;
+				return true;
+			}else if(info[curNode]>key) {
+				curNode = left[curNode];
+				this.comparisons++;
+			}else {
+				curNode = right[curNode];
+				this.comparisons++;
+			}
+		}
+		return false;
+	}
+	
+	public void inrange(int a, int b) {
+		this.comparisons = 0;
+		inrangeRec(root, a, b);
+	}
+	
+	private void inrangeRec(int node, int a, int b) {
+		if(node == NULL) {
+			return;
+		}
+		
+		if(a < info[node]) {
+			this.comparisons++;
+			inrangeRec(left[node], a, b);
+		}
+		
+		if(a <= info[node] && b >= info[node]) {
+			this.comparisons+=2;
+			//System.out.print(info[node] + " ");
+		}
+		
+		if(b > info[node]) {
+			this.comparisons++;
+			inrangeRec(right[node], a, b);
+		}
+	}
+	
+}
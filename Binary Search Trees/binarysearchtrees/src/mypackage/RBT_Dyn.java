@@ -0,0 +1,274 @@
+package mypackage;
+
+/**
+ * Class that implements a red-black tree with dynamic memory allocation
+ * 
+ * Every node is colored red or black and the tree keeps the red-black
+ * properties after each insertion by recoloring and at most two rotations.
+ * The height of the tree is bounded by 2log(n+1), while the number of 
+ * rotations per insertion is constant, which makes it cheaper than the AVL tree
+ * on write-heavy workloads
+ * 
+ * It provides the same methods as the BST_Dyn class 
+ * 
+ * @author Dimitris Petrou | 2018030070 | ece@tuc
+ * 
+ * @from Introduction to Algorithms (CLRS)
+ *
+ */
+public class RBT_Dyn implements SearchTree {
+	
+	/**
+	 * The root node of the tree
+	 */
+	private RBNode root;
+	
+	/**
+	 * A member variable used to track the number of comparisons performed by each method
+	 */
+	private int comparisons;
+	
+	
+	/**
+	 * Class constructor
+	 */
+	public RBT_Dyn() {
+		this.root = null;
+		this.comparisons = 0;
+	}
+	
+	public int getComparisons() {
+		return this.comparisons;
+	}
+	
+	/**
+	 * Method that removes all the keys of the tree
+	 */
+	public void clear() {
+		this.root = null;
+		this.comparisons = 0;
+	}
+	
+	
+	//Balancing methods
+	
+	private boolean isRed(RBNode node) {
+		return node != null && node.isRed();
+	}
+	
+	/**
+	 * Method that rotates the subtree rooted at x to the left.
+	 * The right child of x takes its place and x becomes its left child
+	 * @param x : the root of the subtree
+	 */
+	private void rotateLeft(RBNode x) {
+		RBNode y = x.getRight();
+		
+		x.setRight(y.getLeft());
+		if(y.getLeft() != null) {
+			y.getLeft().setParent(x);
+		}
+		
+		y.setParent(x.getParent());
+		if(x.getParent() == null) {
+			root = y;
+		}else if(x == x.getParent().getLeft()) {
+			x.getParent().setLeft(y);
+		}else {
+			x.getParent().setRight(y);
+		}
+		
+		y.setLeft(x);
+		x.setParent(y);
+	}
+	
+	/**
+	 * Method that rotates the subtree rooted at x to the right.
+	 * The left child of x takes its place and x becomes its right child
+	 * @param x : the root of the subtree
+	 */
+	private void rotateRight(RBNode x) {
+		RBNode y = x.getLeft();
+		
+		x.setLeft(y.getRight());
+		if(y.getRight() != null) {
+			y.getRight().setParent(x);
+		}
+		
+		y.setParent(x.getParent());
+		if(x.getParent() == null) {
+			root = y;
+		}else if(x == x.getParent().getRight()) {
+			x.getParent().setRight(y);
+		}else {
+			x.getParent().setLeft(y);
+		}
+		
+		y.setRight(x);
+		x.setParent(y);
+	}
+	
+	/**
+	 * Method that restores the red-black properties after the insertion
+	 * of the red node z.
+	 * 
+	 * While the parent of z is red: if the uncle of z is also red the 
+	 * parent and the uncle become black, the grandparent becomes red
+	 * and the check moves two levels up. Else one or two rotations
+	 * are performed around the grandparent and the process ends.
+	 * 
+	 * In the end the root is colored black.
+	 * @param z : the node that was inserted
+	 */
+	private void insertFixup(RBNode z) {
+		while(isRed(z.getParent())) {
+			RBNode parent = z.getParent();
+			RBNode grandparent = parent.getParent();
+			
+			if(parent == grandparent.getLeft()) {
+				RBNode uncle = grandparent.getRight();
+				
+				if(isRed(uncle)) {
+					parent.setRed(false);
+					uncle.setRed(false);
+					grandparent.setRed(true);
+					z = grandparent;
+				}else {
+					if(z == parent.getRight()) {
+						z = parent;
+						rotateLeft(z);
+						parent = z.getParent();
+					}
+					parent.setRed(false);
+					grandparent.setRed(true);
+					rotateRight(grandparent);
+				}
+			}else {
+				RBNode uncle = grandparent.getLeft();
+				
+				if(isRed(uncle)) {
+					parent.setRed(false);
+					uncle.setRed(false);
+					grandparent.setRed(true);
+					z = grandparent;
+				}else {
+					if(z == parent.getLeft()) {
+						z = parent;
+						rotateRight(z);
+						parent = z.getParent();
+					}
+					parent.setRed(false);
+					grandparent.setRed(true);
+					rotateLeft(grandparent);
+				}
+			}
+		}
+		root.setRed(false);
+	}
+	
+	
+	//Tree methods
+	
+	/**
+	 * Method for inserting a key in the tree.
+	 * 
+	 * Iteratively we move through the nodes of the tree like in
+	 * a plain BST to find the parent of the new node. Duplicate keys
+	 * are ignored. The new node is colored red and attached to the
+	 * parent and then the red-black properties are restored.
+	 * 
+	 * @param key The key to be inserted
+	 */
+	public void insertKey(int key) {
+		this.comparisons = 0;
+		
+		RBNode parent = null;
+		RBNode current = root;
+		
+		while(current != null) {
+			parent = current;
+			if(key < current.getKey()) {
+				this.comparisons++;
+				current = current.getLeft();
+			}else if(key > current.getKey()) {
+				this.comparisons+=2;
+				current = current.getRight();
+			}else {
+				this.comparisons+=2;
+				return;
+			}
+		}
+		
+		RBNode node = new RBNode(key);
+		node.setParent(parent);
+		
+		if(parent == null) {
+			root = node;
+		}else if(key < parent.getKey()) {
+			parent.setLeft(node);
+		}else {
+			parent.setRight(node);
+		}
+		
+		insertFixup(node);
+	}
+	
+	public void inorder() {
+		inorderRec(root);
+	}
+	
+	private void inorderRec(RBNode node) {
+		if(node != null) {
+			inorderRec(node.getLeft());
+			System.out.print(node.getKey()+"   ");
+			inorderRec(node.getRight());
+		}
+	}
+	
+	public boolean searchKey(int searchKey) {
+		
+		RBNode current = root;
+		this.comparisons = 0;
+		
+		while(current!=null) {
+			if(current.getKey()==searchKey) {
+				this.comparisons++;
+				return true;
+			}else if(current.getKey()>searchKey) {
+				current = current.getLeft();
+				this.comparisons++;
+			}else {
+				current = current.getRight();
+				this.comparisons++;
+			}
+		}
+		return false;
+	}
+	
+	public void inrange(int k1, int k2) {
+		this.comparisons = 0;
+		inrangeRec(root, k1, k2);
+	}
+	
+	private void inrangeRec(RBNode node, int k1, int k2) {
+		if(node == null) {
+			return;
+		}
+		
+		if(k1 < node.getKey()) {
+			this.comparisons++;
+			inrangeRec(node.getLeft(), k1, k2);
+		}
+		
+		if(k1 <= node.getKey() && k2 >= node.getKey()) {
+			this.comparisons+=2;
+			//System.out.print(node.getKey() + " ");
+		}
+		
+		if(k2 > node.getKey()) {
+			this.comparisons++;
+			inrangeRec(node.getRight(), k1, k2);
+		}
+	}
+	
+}
@@ -0,0 +1,67 @@
+package mypackage;
+import java.util.PrimitiveIterator;
+import java.util.function.IntConsumer;
+
+/**
+ * Interface describing the range queries that return the keys found,
+ * without storing them in a list
+ *
+ * The keys are produced lazily in ascending order by a cursor, so a
+ * query over a huge range uses memory proportional to the height of the
+ * structure and can be abandoned after any number of keys. The structure
+ * must not be modified while a cursor is in use.
+ *
+ * @author Dimitris Petrou | 2018030070 | ece@tuc
+ *
+ */
+public interface RangeSearch {
+
+	/**
+	 * Method that returns a cursor over the keys within a range
+	 * @param k1 : the lower bound
+	 * @param k2 : the upper bound
+	 * @return PrimitiveIterator.OfInt : the keys k1 <= key <= k2 in ascending order
+	 */
+	public PrimitiveIterator.OfInt rangeIterator(int k1, int k2);
+
+	/**
+	 * Method that passes the keys within a range to an action in ascending order
+	 * @param k1 : the lower bound
+	 * @param k2 : the upper bound
+	 * @param action : the action performed for every key
+	 */
+	public default void inrange(int k1, int k2, IntConsumer action) {
+		rangeIterator(k1, k2).forEachRemaining(action);
+	}
+
+	/**
+	 * Method that counts the keys within a range, stopping as soon as
+	 * the limit is reached, so asking whether a range holds at least
+	 * a few keys costs as much as finding them
+	 * @param k1 : the lower bound
+	 * @param k2 : the upper bound
+	 * @param limit : the maximum count returned
+	 * @return int : the number of keys in the range, at most limit
+	 */
+	public default int countInRange(int k1, int k2, int limit) {
+		PrimitiveIterator.OfInt cursor = rangeIterator(k1, k2);
+		int count = 0;
+
+		while(count < limit && cursor.hasNext()) {
+			cursor.nextInt();
+			count++;
+		}
+		return count;
+	}
+
+	/**
+	 * Method that counts all the keys within a range
+	 * @param k1 : the lower bound
+	 * @param k2 : the upper bound
+	 * @return int : the number of keys in the range
+	 */
+	public default int countInRange(int k1, int k2) {
+		return countInRange(k1, k2, Integer.MAX_VALUE);
+	}
+
+}
@@ -0,0 +1,93 @@
+package mypackage;
+
+/**
+ * Interface describing the common operations of the trees
+ * that are constructed and compared by the MyTree class
+ * 
+ * @author Dimitris Petrou | 2018030070 | ece@tuc
+ *
+ */
+public interface SearchTree {
+	
+	/**
+	 * Method for inserting a key in the tree
+	 * @param key : the key to be inserted
+	 */
+	public void insertKey(int key);
+	
+	/**
+	 * Method that removes all the keys of the tree
+	 */
+	public void clear();
+	
+	/**
+	 * Method that replaces the contents of the tree with keys given in
+	 * ascending order. The tree ends up holding the same keys as if it
+	 * was cleared and the keys were inserted one by one: the trees that
+	 * ignore duplicate keys on insertion store every repeated key once.
+	 * By default the keys are inserted one by one, the trees that can 
+	 * build a balanced tree directly from the sorted keys override it
+	 * @param sortedKeys : the keys to be inserted in ascending order
+	 */
+	public default void bulkLoad(int[] sortedKeys) {
+		clear();
+		for(int key : sortedKeys) {
+			insertKey(key);
+		}
+	}
+	
+	/**
+	 * Method that drops the repeated keys of a sorted array, for the trees
+	 * that store every key once. Equal keys are neighbours in a sorted
+	 * array, so every key is compared only with the one before it
+	 * @param sortedKeys : the keys in ascending order
+	 * @return int[] : the same array if no key is repeated, else a new array of the distinct keys
+	 */
+	public static int[] distinctKeys(int[] sortedKeys) {
+		int n = 0;
+		for(int i=0; i<sortedKeys.length; i++) {
+			if(i == 0 || sortedKeys[i] != sortedKeys[i-1]) {
+				n++;
+			}
+		}
+		if(n == sortedKeys.length) {
+			return sortedKeys;
+		}
+		
+		int[] distinct = new int[n];
+		n = 0;
+		for(int i=0; i<sortedKeys.length; i++) {
+			if(i == 0 || sortedKeys[i] != sortedKeys[i-1]) {
+				distinct[n++] = sortedKeys[i];
+			}
+		}
+		return distinct;
+	}
+	
+	/**
+	 * Method that searches for a specific key in the tree
+	 * @param key : the key we are searching for
+	 * @return true/false if the key was found or not
+	 */
+	public boolean searchKey(int key);
+	
+	/**
+	 * Method that visits the keys of the tree within a specific range
+	 * @param k1 : the lower bound
+	 * @param k2 : the upper bound
+	 */
+	public void inrange(int k1, int k2);
+	
+	/**
+	 * Method that prints the keys of the tree in an inorder way
+	 */
+	public void inorder();
+	
+	/**
+	 * Method that returns the number of comparisons performed
+	 * by the last method call
+	 * @return int : the number of comparisons
+	 */
+	public int getComparisons();
+	
+}
@@ -0,0 +1,175 @@
+package mypackage;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.function.IntConsumer;
+
+/**
+ * This class provides the range queries over a sorted array of keys,
+ * like the Nx1 array of the MyTree class
+ *
+ * The first key of a range is found with a binary search and the
+ * rest of the keys follow it in the array, so the cursor is just
+ * a position in the array and the range count is a second binary
+ * search, without visiting the keys at all.
+ *
+ * @author Dimitris Petrou | 2018030070 | ece@tuc
+ *
+ */
+public class SortedArray implements RangeSearch {
+
+	/**
+	 * The keys in ascending order, they are not copied
+	 */
+	private int[] keys;
+
+	/**
+	 * The number of searches advanced together by the batched search
+	 */
+	private static final int SEARCH_GROUP = 16;
+
+
+	/**
+	 * Class constructor with an int array argument
+	 * @param sortedKeys : the keys in ascending order
+	 */
+	public SortedArray(int[] sortedKeys) {
+		this.keys = sortedKeys;
+	}
+
+	public int getLength() {
+		return this.keys.length;
+	}
+
+	/**
+	 * Method that finds the first position of the array whose key is
+	 * greater than or equal to a given key, with a binary search
+	 * @param key : the key
+	 * @return int : the position, the length of the array if all the keys are smaller
+	 */
+	public int lowerBound(int key) {
+		int lo = 0;
+		int hi = keys.length;
+
+		while(lo < hi) {
+			int mid = (lo + hi) >>> 1;
+			if(keys[mid] < key) {
+				lo = mid + 1;
+			}else {
+				hi = mid;
+			}
+		}
+		return lo;
+	}
+
+	/**
+	 * Method that finds the first position of the array whose key is
+	 * greater than a given key, with a binary search
+	 * @param key : the key
+	 * @return int : the position, the length of the array if no key is greater
+	 */
+	public int upperBound(int key) {
+		return (key == Integer.MAX_VALUE) ? keys.length : lowerBound(key+1);
+	}
+
+	/**
+	 * Method that searches for many keys at once.
+	 *
+	 * The keys are searched in groups and every search of a group halves
+	 * its part of the array in turn. All the searches need the same number
+	 * of steps, so the group moves together until the end, and the memory
+	 * accesses of the group do not depend on each other: the processor can
+	 * wait for their cache misses at the same time. The halving is written
+	 * without branches on the result of the comparisons.
+	 *
+	 * @param keys : the keys we are searching for
+	 * @param out : the results, out[i] is true if keys[i] was found
+	 */
+	public void searchKeys(int[] keys, boolean[] out) {
+		if(out.length < keys.length) {
+			throw new IllegalArgumentException("The results array is shorter than the keys array");
+		}
+		int n = this.keys.length;
+		int[] base = new int[SEARCH_GROUP];
+
+		for(int from=0; from<keys.length; from+=SEARCH_GROUP) {
+			int group = Math.min(SEARCH_GROUP, keys.length-from);
+
+			if(n == 0) {
+				for(int j=0; j<group; j++) {
+					out[from+j] = false;
+				}
+				continue;
+			}
+
+			// base is the last position whose key is <= the searched key, if any
+			for(int j=0; j<group; j++) {
+				base[j] = 0;
+			}
+			for(int len=n; len>1; ) {
+				int half = len >>> 1;
+				for(int j=0; j<group; j++) {
+					int b = base[j];
+					base[j] = (this.keys[b+half] <= keys[from+j]) ? b+half : b;
+				}
+				len -= half;
+			}
+			for(int j=0; j<group; j++) {
+				out[from+j] = (this.keys[base[j]] == keys[from+j]);
+			}
+		}
+	}
+
+	/**
+	 * Method that returns the number of keys that are smaller than a given key
+	 * @param key : the key
+	 * @return int : the number of smaller keys
+	 */
+	public int rank(int key) {
+		return lowerBound(key);
+	}
+
+	/**
+	 * Method that returns the k-th smallest key
+	 * @param k : the position of the key in ascending order, starting from 0
+	 * @return int : the key
+	 */
+	public int select(int k) {
+		return keys[k];
+	}
+
+	public PrimitiveIterator.OfInt rangeIterator(int k1, int k2) {
+		int from = lowerBound(k1);
+		int to = (k1 <= k2) ? Math.max(from, upperBound(k2)) : from;
+
+		return new PrimitiveIterator.OfInt() {
+			private int position = from;
+
+			public boolean hasNext() {
+				return position < to;
+			}
+
+			public int nextInt() {
+				if(position >= to) {
+					throw new NoSuchElementException();
+				}
+				return keys[position++];
+			}
+		};
+	}
+
+	public void inrange(int k1, int k2, IntConsumer action) {
+		int to = (k1 <= k2) ? upperBound(k2) : 0;
+
+		for(int i=lowerBound(k1); i<to; i++) {
+			action.accept(keys[i]);
+		}
+	}
+
+	public int countInRange(int k1, int k2, int limit) {
+		if(k1 > k2) {
+			return 0;
+		}
+		return Math.min(limit, upperBound(k2) - lowerBound(k1));
+	}
+
+}
@@ -0,0 +1,279 @@
+package mypackage;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Class that benchmarks the search operations of the static and
+ * the dynamic BST and of the sorted array, using the Benchmark harness
+ *
+ * The range counts of the trees use the subtree sizes, so they are
+ * measured on a narrow and on a wide range against the walk over the
+ * range and against the binary searches of the sorted array.
+ *
+ * The searches of the sorted array are also measured on the read-only
+ * indexes in Eytzinger and in van Emde Boas order. The data sets range
+ * from a few KB to more than the last level cache, so the layouts are
+ * compared at every level of the memory hierarchy. The same searches are
+ * measured on the sorted array compressed in blocks of differences.
+ *
+ * The layouts of the static tree are compared per level of the searches:
+ * the three arrays of BST_Arr against the interleaved nodes of stride 3
+ * and 4. All of them have the same shape, so a call searching all the
+ * keys visits the same levels and its time is reported per level.
+ *
+ * The data sets are the testnumbers_[N]_BE.bin files found in the given
+ * directory and, for the larger sizes, files of random numbers generated
+ * in a temporary directory. For every data set the trees are constructed
+ * by inserting the numbers in the order of the file, like in MyTree.
+ *
+ * The searched keys are drawn before the measurements from a fixed seed,
+ * half of them from the data set and half of them random, so that the
+ * random number generator is not part of the measured time.
+ *
+ * After the measurements the same keys are searched once more with a
+ * HistogramRecorder set on each tree, which gives the distribution of the
+ * comparisons, the visited nodes and the latency of the operations.
+ *
+ * Usage: TreeBenchmark [testnumbers directory] [generated sizes...]
+ *
+ * @author Dimitris Petrou | 2018030070 | ece@tuc
+ *
+ */
+public class TreeBenchmark {
+
+	/**
+	 * The number of searched keys drawn for each data set, a power of 2
+	 */
+	private static final int QUERIES = 1 << 16;
+
+	/**
+	 * The width of the ranges used in the inrange benchmarks
+	 */
+	private static final int RANGE = 100;
+
+	/**
+	 * The width of the wide ranges used in the range count benchmarks,
+	 * about 1/256 of the random keys
+	 */
+	private static final int WIDE_RANGE = 1 << 24;
+
+	/**
+	 * The size of the data set generated when no sizes are given
+	 */
+	private static final int DEFAULT_GENERATED_SIZE = 10_000_000;
+
+	/**
+	 * The benchmark harness
+	 */
+	private Benchmark bench;
+
+
+	/**
+	 * Class constructor
+	 */
+	public TreeBenchmark() {
+		this.bench = new Benchmark();
+	}
+
+	public static void main(String[] args) throws IOException {
+		String directory = (args.length > 0) ? args[0] : "../testnumbers";
+
+		List<Integer> generatedSizes = new ArrayList<Integer>();
+		for(int i=1; i<args.length; i++) {
+			generatedSizes.add(Integer.parseInt(args[i]));
+		}
+		if(args.length <= 1) {
+			generatedSizes.add(DEFAULT_GENERATED_SIZE);
+		}
+
+		List<String> dataSets = new ArrayList<String>();
+		File[] files = new File(directory).listFiles((dir, name) -> name.matches("testnumbers_\\d+_BE\\.bin"));
+		if(files != null) {
+			Arrays.sort(files, (f1, f2) -> Long.compare(f1.length(), f2.length()));
+			for(File f : files) {
+				dataSets.add(f.getPath());
+			}
+		}
+		for(int size : generatedSizes) {
+			dataSets.add(generateFile(size));
+		}
+
+		TreeBenchmark tb = new TreeBenchmark();
+		tb.bench.printHeader();
+		for(String dataSet : dataSets) {
+			tb.benchmarkDataSet(dataSet);
+		}
+	}
+
+	/**
+	 * Method that constructs the structures from a data set
+	 * and runs all the benchmarks on them
+	 * @param filepath : the path to the file of the data set
+	 */
+	private void benchmarkDataSet(String filepath) {
+		FileAccess fsys = new FileAccess(filepath);
+		int[] numbers = fsys.getNumbers();
+		int size = numbers.length;
+
+		BST_Arr bst_arr = new BST_Arr(size);
+		BST_Dyn bst_dyn = new BST_Dyn();
+		for(int key : numbers) {
+			bst_arr.insertKey(key);
+			bst_dyn.insertKey(key);
+		}
+		int[] array1D = bst_arr.inorderToArray();
+
+		// Stream mode so that the trees of MyTree are not sized for the file,
+		// only its array search methods are used
+		MyTree mt = new MyTree(filepath, MyTree.STREAM_MODE);
+
+		int[] keys = drawKeys(numbers);
+		int mask = QUERIES-1;
+
+		bench.run("BST_Arr.searchKey", size, i -> bst_arr.searchKey(keys[i & mask]) ? 1 : 0);
+		bench.run("BST_Dyn.searchKey", size, i -> bst_dyn.searchKey(keys[i & mask]) ? 1 : 0);
+		bench.run("MyTree.binarySearchArray", size, i -> mt.binarySearchArray(array1D, keys[i & mask], 0, array1D.length-1));
+
+		EytzingerIndex eytzinger = new EytzingerIndex(array1D);
+		VanEmdeBoasIndex vanEmdeBoas = new VanEmdeBoasIndex(array1D);
+		bench.run("EytzingerIndex.searchKey", size, i -> eytzinger.searchKey(keys[i & mask]) ? 1 : 0);
+		bench.run("VanEmdeBoasIndex.searchKey", size, i -> vanEmdeBoas.searchKey(keys[i & mask]) ? 1 : 0);
+
+		CompressedSortedArray compressed = new CompressedSortedArray(array1D);
+		bench.run("CompressedSortedArray.contains", size, i -> compressed.contains(keys[i & mask]) ? 1 : 0);
+		bench.run("CompressedSortedArray.lowerBound", size, i -> compressed.lowerBound(keys[i & mask]));
+
+		bench.run("BST_Arr.inrange("+RANGE+")", size, i -> {
+			bst_arr.inrange(keys[i & mask], keys[i & mask]+RANGE);
+			return bst_arr.getComparisons();
+		});
+		bench.run("BST_Dyn.inrange("+RANGE+")", size, i -> {
+			bst_dyn.inrange(keys[i & mask], keys[i & mask]+RANGE);
+			return bst_dyn.getComparisons();
+		});
+		bench.run("MyTree.searchArrayInrange("+RANGE+")", size, i -> mt.searchArrayInrange(array1D, keys[i & mask], keys[i & mask]+RANGE));
+
+		SortedArray sortedArray = new SortedArray(array1D);
+		// The static tree keeps the duplicate numbers, the dynamic one ignores them
+		int arrNodes = Math.max(1, bst_arr.getNumberOfNodes());
+		int dynNodes = Math.max(1, bst_dyn.getNumberOfNodes());
+
+		bench.run("BST_Arr.rank", size, i -> bst_arr.rank(keys[i & mask]));
+		bench.run("BST_Dyn.rank", size, i -> bst_dyn.rank(keys[i & mask]));
+		bench.run("SortedArray.rank", size, i -> sortedArray.rank(keys[i & mask]));
+		if(size > 0) {
+			bench.run("BST_Arr.select", size, i -> bst_arr.select((keys[i & mask] & Integer.MAX_VALUE) % arrNodes));
+			bench.run("BST_Dyn.select", size, i -> bst_dyn.select((keys[i & mask] & Integer.MAX_VALUE) % dynNodes));
+		}
+
+		for(int range : new int[] {RANGE, WIDE_RANGE}) {
+			bench.run("BST_Arr.countInRange("+range+")", size, i -> bst_arr.countInRange(keys[i & mask], keys[i & mask]+range));
+			bench.run("BST_Dyn.countInRange("+range+")", size, i -> bst_dyn.countInRange(keys[i & mask], keys[i & mask]+range));
+			bench.run("SortedArray.countInRange("+range+")", size, i -> sortedArray.countInRange(keys[i & mask], keys[i & mask]+range));
+			bench.run("MyTree.searchArrayInrange("+range+")", size, i -> mt.searchArrayInrange(array1D, keys[i & mask], keys[i & mask]+range));
+			bench.run("BST_Arr.inrange("+range+") walk", size, i -> {
+				bst_arr.inrange(keys[i & mask], keys[i & mask]+range);
+				return bst_arr.getComparisons();
+			});
+		}
+
+		BST_Interleaved packed = new BST_Interleaved(size, 3);
+		BST_Interleaved aligned = new BST_Interleaved(size, 4);
+		long levels = 0;
+		for(int key : numbers) {
+			packed.insertKey(key);
+			aligned.insertKey(key);
+		}
+		for(int key : keys) {
+			bst_arr.searchKey(key);
+			levels += bst_arr.getComparisons();
+		}
+		int levelsPerCall = (int)Math.max(1, Math.min(levels, Integer.MAX_VALUE));
+
+		bench.run("BST_Arr.searchKey per level", size, levelsPerCall, i -> searchAll(bst_arr, keys));
+		bench.run("BST_Interleaved(3).searchKey per level", size, levelsPerCall, i -> searchAll(packed, keys));
+		bench.run("BST_Interleaved(4).searchKey per level", size, levelsPerCall, i -> searchAll(aligned, keys));
+
+		HistogramRecorder arrRecorder = new HistogramRecorder();
+		HistogramRecorder dynRecorder = new HistogramRecorder();
+		bst_arr.setRecorder(arrRecorder);
+		bst_dyn.setRecorder(dynRecorder);
+		for(int key : keys) {
+			bst_arr.searchKey(key);
+			bst_dyn.searchKey(key);
+			bst_arr.inrange(key, key+RANGE);
+			bst_dyn.inrange(key, key+RANGE);
+		}
+		bst_arr.setRecorder(OperationRecorder.NONE);
+		bst_dyn.setRecorder(OperationRecorder.NONE);
+
+		arrRecorder.printSummary("BST_Arr ("+size+")");
+		dynRecorder.printSummary("BST_Dyn ("+size+")");
+	}
+
+	/**
+	 * Method that searches for all the keys in a tree
+	 * @param tree : the tree
+	 * @param keys : the keys to be searched
+	 * @return long : the number of keys found
+	 */
+	private static long searchAll(SearchTree tree, int[] keys) {
+		long found = 0;
+		for(int key : keys) {
+			if(tree.searchKey(key)) {
+				found++;
+			}
+		}
+		return found;
+	}
+
+	/**
+	 * Method that draws the searched keys, half of them from
+	 * the numbers of the data set and half of them random
+	 * @param numbers : the numbers of the data set
+	 * @return int[] : the keys to be searched
+	 */
+	private static int[] drawKeys(int[] numbers) {
+		Random random = new Random(42);
+		int[] keys = new int[QUERIES];
+
+		for(int i=0; i<QUERIES; i++) {
+			if(numbers.length > 0 && random.nextBoolean()) {
+				keys[i] = numbers[random.nextInt(numbers.length)];
+			}else {
+				keys[i] = random.nextInt();
+			}
+		}
+		return keys;
+	}
+
+	/**
+	 * Method that generates a file of random numbers in the format of the
+	 * testnumbers files (big endian ints) in a temporary directory
+	 * @param size : the number of numbers
+	 * @return String : the path to the file
+	 * @throws IOException if the file cannot be written
+	 */
+	private static String generateFile(int size) throws IOException {
+		File file = new File(System.getProperty("java.io.tmpdir"), "testnumbers_"+size+"_BE.bin");
+
+		if(file.length() != 4L*size) {
+			Random random = new Random(size);
+			DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file), 1 << 16));
+			for(int i=0; i<size; i++) {
+				out.writeInt(random.nextInt());
+			}
+			out.close();
+		}
+		file.deleteOnExit();
+		return file.getPath();
+	}
+
+}
@@ -0,0 +1,273 @@
+package mypackage;
+
+/**
+ * This class implements a read-only search index over a sorted
+ * array of keys, stored in van Emde Boas order
+ *
+ * The keys are the nodes of a perfectly balanced BST of height h. The
+ * tree is cut in the middle of its levels, into a top tree of height h/2
+ * and the bottom trees hanging from its leaves. The top tree is stored
+ * first and the bottom trees after it, from left to right, and every one
+ * of them is stored in the same way recursively. So at every scale the
+ * nodes that a search visits one after the other are stored close to each
+ * other: whatever the size of a cache line, a page or a TLB entry, a search
+ * crosses O(log_B n) blocks of size B, without the index knowing B.
+ *
+ * A search moves down the tree with the BFS number of the node, as in the
+ * Eytzinger index, and finds its position from the position of an
+ * ancestor, with three small tables of the tree heights. The tree is
+ * completed to 2^h - 1 nodes with the greatest int, at the end of the
+ * keys, so that all the bottom trees of a level have the same size.
+ *
+ * @author Dimitris Petrou | 2018030070 | ece@tuc
+ *
+ * @from Cache Oblivious Search Trees via Binary Trees of Small Height (Brodal, Fagerberg, Jacob)
+ *
+ */
+public class VanEmdeBoasIndex {
+
+	/**
+	 * The greatest height supported, so that the completed tree fits in an int array
+	 */
+	private static final int MAX_HEIGHT = 30;
+
+	/**
+	 * The array storing the keys in van Emde Boas order
+	 */
+	private int[] keys;
+
+	/**
+	 * The number of keys stored in the index
+	 */
+	private int size;
+
+	/**
+	 * The height of the completed tree
+	 */
+	private int height;
+
+	/**
+	 * For every depth d, the size of the bottom tree whose root is at depth d,
+	 * the size of the top tree above it and the depth of the root of that top tree
+	 */
+	private int[] bottomSize;
+	private int[] topSize;
+	private int[] topDepth;
+
+	/**
+	 * The positions of the nodes of the current path, by depth
+	 */
+	private int[] pos;
+
+	/**
+	 * A member variable used to track the number of comparisons performed by each method
+	 */
+	private int comparisons;
+
+
+	/**
+	 * Class constructor with an int array argument
+	 * @param sortedArray : the keys of the index in ascending order
+	 * @throws IllegalArgumentException if there are more than 2^30 - 1 keys
+	 */
+	public VanEmdeBoasIndex(int[] sortedArray) {
+		this.size = sortedArray.length;
+		this.height = 32 - Integer.numberOfLeadingZeros(size);
+		if(height > MAX_HEIGHT) {
+			throw new IllegalArgumentException("Too many keys for the index: "+size);
+		}
+		this.keys = new int[(1 << height) - 1];
+		this.bottomSize = new int[height];
+		this.topSize = new int[height];
+		this.topDepth = new int[height];
+		this.pos = new int[height];
+		this.comparisons = 0;
+
+		split(0, height);
+		build(sortedArray);
+	}
+
+	/**
+	 * Recursive method that cuts a subtree into its top and bottom trees
+	 * and fills the tables for the depth of the roots of the bottom trees
+	 * @param depth : the depth of the root of the subtree
+	 * @param h : the height of the subtree
+	 */
+	private void split(int depth, int h) {
+		if(h <= 1) {
+			return;
+		}
+		int topHeight = h / 2;
+		int bottomHeight = h - topHeight;
+		int d = depth + topHeight;
+
+		bottomSize[d] = (1 << bottomHeight) - 1;
+		topSize[d] = (1 << topHeight) - 1;
+		topDepth[d] = depth;
+
+		split(depth, topHeight);
+		split(d, bottomHeight);
+	}
+
+	/**
+	 * Method that stores the position of the node with BFS number i at
+	 * depth d in the path. The subtree of the ancestor at the depth of the
+	 * top tree starts with the top tree, then come the bottom trees, and
+	 * the last bits of i tell which of them holds the node
+	 * @param i : the BFS number of the node, the root is 1
+	 * @param d : the depth of the node, greater than 0
+	 */
+	private void setPos(int i, int d) {
+		pos[d] = pos[topDepth[d]] + topSize[d] + (i & topSize[d]) * bottomSize[d];
+	}
+
+	/**
+	 * Method that fills the array visiting the nodes of the completed tree
+	 * in ascending order, the positions after the keys get the greatest int
+	 * @param sortedArray : the keys in ascending order
+	 */
+	private void build(int[] sortedArray) {
+		if(size == 0) {
+			return;
+		}
+		int i = leftmost(1, 0);
+		int d = height-1;
+
+		for(int r=0; r<keys.length; r++) {
+			keys[pos[d]] = (r < size) ? sortedArray[r] : Integer.MAX_VALUE;
+			if(r < keys.length-1) {
+				i = next(i, d);
+				d = 31 - Integer.numberOfLeadingZeros(i);
+			}
+		}
+	}
+
+	/**
+	 * Method that moves down to the leftmost leaf of a subtree
+	 * @param i : the BFS number of the root of the subtree
+	 * @param d : the depth of the root of the subtree
+	 * @return int : the BFS number of the leaf
+	 */
+	private int leftmost(int i, int d) {
+		while(d < height-1) {
+			i = 2*i;
+			d++;
+			setPos(i, d);
+		}
+		return i;
+	}
+
+	/**
+	 * Method that returns the node that follows a node in ascending order.
+	 *
+	 * If the node is not a leaf, the next node is the leftmost leaf of the
+	 * right subtree. Else we move up while the node is a right child and then
+	 * one more level. The positions of the ancestors are still in the path
+	 * @param i : the BFS number of the current node
+	 * @param d : the depth of the current node
+	 * @return int : the BFS number of the next node, or 0 if i is the last one
+	 */
+	private int next(int i, int d) {
+		if(d < height-1) {
+			i = 2*i+1;
+			setPos(i, d+1);
+			return leftmost(i, d+1);
+		}
+		return i >>> (Integer.numberOfTrailingZeros(~i) + 1);
+	}
+
+	/**
+	 * Method that returns the position in ascending order of a node
+	 * @param i : the BFS number of the node
+	 * @param d : the depth of the node
+	 * @return int : the number of nodes that precede it
+	 */
+	private int rank(int i, int d) {
+		return ((2*(i - (1 << d)) + 1) << (height-1-d)) - 1;
+	}
+
+	public int getComparisons() {
+		return this.comparisons;
+	}
+
+	public int getSize() {
+		return this.size;
+	}
+
+	/**
+	 * Method that returns the node of the smallest key that is greater than
+	 * or equal to the given key, leaving the path to it in pos.
+	 *
+	 * We move down the tree until we fall off the last level, as in the
+	 * Eytzinger index, and the answer is the last node where we moved left
+	 * @param key : the key we are searching for
+	 * @return int : the BFS number of the lower bound, or 0 if all the nodes are smaller
+	 */
+	private int lowerBound(int key) {
+		if(size == 0) {
+			return 0;
+		}
+		int i = 1;
+		pos[0] = 0;
+		this.comparisons++;
+		i = 2*i + (keys[0] < key ? 1 : 0);
+
+		for(int d=1; d<height; d++) {
+			setPos(i, d);
+			this.comparisons++;
+			i = 2*i + (keys[pos[d]] < key ? 1 : 0);
+		}
+
+		return i >>> (Integer.numberOfTrailingZeros(~i) + 1);
+	}
+
+	/**
+	 * Method that searches for a specific key in the index
+	 * @param key : the key we are searching for
+	 * @return true/false if the key was found or not
+	 */
+	public boolean searchKey(int key) {
+		this.comparisons = 0;
+
+		int i = lowerBound(key);
+		if(i == 0) {
+			return false;
+		}
+		int d = 31 - Integer.numberOfLeadingZeros(i);
+
+		this.comparisons++;
+		// The completed nodes hold the greatest int but they are not keys
+		return keys[pos[d]] == key && rank(i, d) < size;
+	}
+
+	/**
+	 * Method that visits the keys of the index within a specific range.
+	 * It finds the lower bound of the range and then it moves from key
+	 * to key in ascending order until the upper bound is exceeded
+	 * @param a : the lower bound
+	 * @param b : the upper bound
+	 */
+	public void inrange(int a, int b) {
+		this.comparisons = 0;
+
+		int i = lowerBound(a);
+		if(i == 0) {
+			return;
+		}
+		int d = 31 - Integer.numberOfLeadingZeros(i);
+
+		for(int r = rank(i, d); r < size; r++) {
+			this.comparisons++;
+			if(keys[pos[d]] > b) {
+				break;
+			}
+			//System.out.print(keys[pos[d]] + " ");
+			i = next(i, d);
+			if(i == 0) {
+				break;
+			}
+			d = 31 - Integer.numberOfLeadingZeros(i);
+		}
+	}
+
+}
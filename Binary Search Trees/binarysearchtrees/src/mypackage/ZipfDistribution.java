@@ -0,0 +1,72 @@
+package mypackage;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Class that draws random ranks from a Zipf distribution: the rank i
+ * (starting from 0) is drawn with probability proportional to 1/(i+1)^s
+ *
+ * With the exponent s close to 1 a few ranks get most of the draws, like
+ * the hot keys of a real lookup workload. The cumulative probabilities of
+ * all the ranks are computed once, and every draw is a binary search in them.
+ *
+ * @author Dimitris Petrou | 2018030070 | ece@tuc
+ *
+ */
+public class ZipfDistribution {
+
+	/**
+	 * The cumulative probability of every rank, the last one is 1
+	 */
+	private double[] cumulative;
+
+	/**
+	 * The random number generator of the draws
+	 */
+	private Random random;
+
+
+	/**
+	 * Class constructor
+	 * @param n : the number of ranks
+	 * @param exponent : the exponent s of the distribution, 0 gives the uniform distribution
+	 * @param seed : the seed of the random number generator
+	 */
+	public ZipfDistribution(int n, double exponent, long seed) {
+		if(n <= 0) {
+			throw new IllegalArgumentException("The number of ranks must be positive");
+		}
+		this.cumulative = new double[n];
+		this.random = new Random(seed);
+
+		double sum = 0;
+		for(int i=0; i<n; i++) {
+			sum += 1.0 / Math.pow(i+1, exponent);
+			cumulative[i] = sum;
+		}
+		for(int i=0; i<n; i++) {
+			cumulative[i] /= sum;
+		}
+		cumulative[n-1] = 1.0;
+	}
+
+	/**
+	 * Method that draws a rank
+	 * @return int : the rank, between 0 and n-1
+	 */
+	public int next() {
+		double u = random.nextDouble();
+		int pos = Arrays.binarySearch(cumulative, u);
+		return (pos >= 0) ? pos : -pos-1;
+	}
+
+	/**
+	 * Method that returns the probability of the ranks up to a given one
+	 * @param rank : the rank
+	 * @return double : the probability of drawing a rank <= rank
+	 */
+	public double getCumulativeProbability(int rank) {
+		return cumulative[rank];
+	}
+
+}
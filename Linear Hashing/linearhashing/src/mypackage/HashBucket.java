@@ -41,6 +41,19 @@ public class HashBucket {
 		return this.numberOfKeys;
 	}
 	
+	/**
+	 * Method that returns the number of buckets in the chain of this 
+	 * bucket, counting the bucket itself and its overflow buckets
+	 * @return int : the length of the chain
+	 */
+	public int getChainLength() {
+		int length = 1;
+		for(HashBucket b = this.overflowBucket; b != null; b = b.overflowBucket) {
+			length++;
+		}
+		return length;
+	}
+	
 	
 	/**
 	 * Method that inserts a key in the array of integers of the bucket
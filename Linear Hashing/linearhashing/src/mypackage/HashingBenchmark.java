@@ -0,0 +1,209 @@
+package mypackage;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Class that benchmarks the insertion, search and deletion of keys in
+ * the linear hashing tables with 50% and 80% max load factor, using the
+ * Benchmark harness
+ *
+ * The data sets are the testnumbers_[N]_BE.bin files found in the given
+ * directory and, for the larger sizes, files of random numbers generated
+ * in a temporary directory. The tables have the same number of buckets
+ * and keys per bucket as in MyHashing.
+ *
+ * The insertion is measured by loading all the numbers of the data set in
+ * a new table and it is reported per key. The deletion of a key is measured
+ * together with its insertion back, so that the table stays the same
+ * during the measurement.
+ *
+ * After the measurements the same keys are searched, deleted and inserted
+ * back once more with a HistogramRecorder set on the table, which gives the
+ * distribution of the comparisons, the visited buckets and the latency.
+ *
+ * Usage: HashingBenchmark [testnumbers directory] [generated sizes...]
+ *
+ * @author Dimitris Petrou | 2018030070 | ece@tuc
+ *
+ */
+public class HashingBenchmark {
+
+	/**
+	 * The number of searched keys drawn for each data set, a power of 2
+	 */
+	private static final int QUERIES = 1 << 16;
+
+	/**
+	 * The size of the data set generated when no sizes are given
+	 */
+	private static final int DEFAULT_GENERATED_SIZE = 100_000;
+
+	/**
+	 * Number of buckets in the table
+	 */
+	private static final int numberOfBuckets = 100;
+
+	/**
+	 * Keys in every bucket
+	 */
+	private static final int keysInBucket = 10;
+
+	/**
+	 * The max load factors of the tables benchmarked
+	 */
+	private static final float[] loadFactors = {0.5f, 0.8f};
+
+	/**
+	 * The benchmark harness
+	 */
+	private Benchmark bench;
+
+
+	/**
+	 * Class constructor
+	 */
+	public HashingBenchmark() {
+		this.bench = new Benchmark();
+	}
+
+	public static void main(String[] args) throws IOException {
+		String directory = (args.length > 0) ? args[0] : "../testnumbers";
+
+		List<Integer> generatedSizes = new ArrayList<Integer>();
+		for(int i=1; i<args.length; i++) {
+			generatedSizes.add(Integer.parseInt(args[i]));
+		}
+		if(args.length <= 1) {
+			generatedSizes.add(DEFAULT_GENERATED_SIZE);
+		}
+
+		List<String> dataSets = new ArrayList<String>();
+		File[] files = new File(directory).listFiles((dir, name) -> name.matches("testnumbers_\\d+_BE\\.bin"));
+		if(files != null) {
+			Arrays.sort(files, (f1, f2) -> Long.compare(f1.length(), f2.length()));
+			for(File f : files) {
+				dataSets.add(f.getPath());
+			}
+		}
+		for(int size : generatedSizes) {
+			dataSets.add(generateFile(size));
+		}
+
+		HashingBenchmark hb = new HashingBenchmark();
+		hb.bench.printHeader();
+		for(String dataSet : dataSets) {
+			hb.benchmarkDataSet(dataSet);
+		}
+	}
+
+	/**
+	 * Method that runs all the benchmarks on a data set for each load factor
+	 * @param filepath : the path to the file of the data set
+	 */
+	private void benchmarkDataSet(String filepath) {
+		int[] numbers = new FileAccess(filepath).getNumbers();
+		int size = numbers.length;
+		int[] keys = drawKeys(numbers);
+		int mask = QUERIES-1;
+
+		for(float loadFactor : loadFactors) {
+			String name = "LinearHashing(u>"+Math.round(loadFactor*100)+"%)";
+
+			bench.run(name+".insertKey", size, Math.max(1, size), i -> {
+				LinearHashing table = newTable(loadFactor);
+				for(int key : numbers) {
+					table.insertKey(key);
+				}
+				return table.getNumberOfComparisons();
+			});
+
+			LinearHashing table = newTable(loadFactor);
+			for(int key : numbers) {
+				table.insertKey(key);
+			}
+
+			bench.run(name+".searchKey", size, i -> table.searchKey(keys[i & mask]) ? 1 : 0);
+
+			bench.run(name+".deleteKey+insertKey", size, i -> {
+				int key = numbers[(i & Integer.MAX_VALUE) % size];
+				table.deleteKey(key);
+				table.insertKey(key);
+				return table.getNumberOfComparisons();
+			});
+
+			HistogramRecorder recorder = new HistogramRecorder();
+			table.setRecorder(recorder);
+			for(int i=0; i<QUERIES; i++) {
+				table.searchKey(keys[i]);
+				int key = numbers[i % size];
+				table.deleteKey(key);
+				table.insertKey(key);
+			}
+			table.setRecorder(OperationRecorder.NONE);
+
+			recorder.printSummary(name+" ("+size+")");
+		}
+	}
+
+	/**
+	 * Method that creates an empty table like the ones of MyHashing
+	 * @param loadFactor : the max load factor of the table
+	 * @return LinearHashing : the table
+	 */
+	private static LinearHashing newTable(float loadFactor) {
+		LinearHashing table = new LinearHashing(keysInBucket, numberOfBuckets);
+		table.setLoadFactor(loadFactor);
+		return table;
+	}
+
+	/**
+	 * Method that draws the searched keys, half of them from
+	 * the numbers of the data set and half of them random
+	 * @param numbers : the numbers of the data set
+	 * @return int[] : the keys to be searched
+	 */
+	private static int[] drawKeys(int[] numbers) {
+		Random random = new Random(42);
+		int[] keys = new int[QUERIES];
+
+		for(int i=0; i<QUERIES; i++) {
+			if(numbers.length > 0 && random.nextBoolean()) {
+				keys[i] = numbers[random.nextInt(numbers.length)];
+			}else {
+				keys[i] = random.nextInt();
+			}
+		}
+		return keys;
+	}
+
+	/**
+	 * Method that generates a file of random numbers in the format of the
+	 * testnumbers files (big endian ints) in a temporary directory
+	 * @param size : the number of numbers
+	 * @return String : the path to the file
+	 * @throws IOException if the file cannot be written
+	 */
+	private static String generateFile(int size) throws IOException {
+		File file = new File(System.getProperty("java.io.tmpdir"), "testnumbers_"+size+"_BE.bin");
+
+		if(file.length() != 4L*size) {
+			Random random = new Random(size);
+			DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file), 1 << 16));
+			for(int i=0; i<size; i++) {
+				out.writeInt(random.nextInt());
+			}
+			out.close();
+		}
+		file.deleteOnExit();
+		return file.getPath();
+	}
+
+}
@@ -0,0 +1,223 @@
+package mypackage;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Class that implements a thread-safe recorder keeping, for each type
+ * of operation, histograms of the comparisons, of the visits and of the
+ * latency of the operations
+ *
+ * Values up to 63 have a bucket of their own and larger values share
+ * a bucket per power of 2, so every histogram has a fixed size and
+ * recording an operation takes a few atomic increments, from any
+ * number of threads.
+ *
+ * @author Dimitris Petrou | 2018030070 | ece@tuc
+ *
+ */
+public class HistogramRecorder implements OperationRecorder {
+
+	/**
+	 * The metrics kept for each operation
+	 */
+	public static final int COMPARISONS = 0;
+	public static final int VISITS = 1;
+	public static final int LATENCY = 2;
+
+	/**
+	 * The number of metrics kept for each operation
+	 */
+	private static final int METRICS = 3;
+
+	/**
+	 * The values that have a bucket of their own
+	 */
+	private static final int LINEAR = 64;
+
+	/**
+	 * The number of buckets of each histogram, enough for any long value
+	 */
+	private static final int BUCKETS = 128;
+
+	/**
+	 * The histograms of all the operations and metrics, stored one after the other
+	 */
+	private AtomicLongArray histograms;
+
+	/**
+	 * The sum of the values of each operation and metric
+	 */
+	private AtomicLongArray sums;
+
+	/**
+	 * The number of operations recorded of each type
+	 */
+	private AtomicLongArray counts;
+
+	/**
+	 * True if the latency of the operations is measured
+	 */
+	private boolean timing;
+
+
+	/**
+	 * Class constructor, the latency of the operations is measured
+	 */
+	public HistogramRecorder() {
+		this(true);
+	}
+
+	/**
+	 * Class constructor with a boolean argument
+	 * @param timing : true to measure the latency of the operations,
+	 * 				   false to avoid reading the timer twice per operation
+	 */
+	public HistogramRecorder(boolean timing) {
+		int operations = OPERATIONS.length;
+
+		this.histograms = new AtomicLongArray(operations*METRICS*BUCKETS);
+		this.sums = new AtomicLongArray(operations*METRICS);
+		this.counts = new AtomicLongArray(operations);
+		this.timing = timing;
+	}
+
+	public long startTime() {
+		return timing ? System.nanoTime() : 0L;
+	}
+
+	public void record(int operation, int comparisons, int visits, long startTime) {
+		counts.incrementAndGet(operation);
+		add(operation, COMPARISONS, comparisons);
+		add(operation, VISITS, visits);
+		if(timing) {
+			add(operation, LATENCY, System.nanoTime()-startTime);
+		}
+	}
+
+	/**
+	 * Method that adds a value in the histogram of an operation and metric
+	 * @param operation : the type of the operation
+	 * @param metric : the metric
+	 * @param value : the value
+	 */
+	private void add(int operation, int metric, long value) {
+		int series = operation*METRICS+metric;
+		sums.addAndGet(series, value);
+		histograms.incrementAndGet(series*BUCKETS+bucket(value));
+	}
+
+	/**
+	 * Method that returns the bucket of a value
+	 * @param value : the value
+	 * @return int : the value itself if it is less than 64, else 58 plus its base 2 logarithm
+	 */
+	private static int bucket(long value) {
+		if(value < LINEAR) {
+			return (int)Math.max(0, value);
+		}
+		return LINEAR-6 + (63-Long.numberOfLeadingZeros(value));
+	}
+
+	/**
+	 * Method that returns the smallest value of a bucket
+	 * @param bucket : the bucket
+	 * @return long : the smallest value that falls in the bucket
+	 */
+	private static long lowerBound(int bucket) {
+		if(bucket < LINEAR) {
+			return bucket;
+		}
+		return 1L << (bucket-(LINEAR-6));
+	}
+
+	public boolean isTiming() {
+		return this.timing;
+	}
+
+	/**
+	 * Method that returns the number of operations of a type recorded
+	 * @param operation : the type of the operation
+	 * @return long : the number of operations
+	 */
+	public long getCount(int operation) {
+		return counts.get(operation);
+	}
+
+	/**
+	 * Method that returns the average value of a metric for a type of operation
+	 * @param operation : the type of the operation
+	 * @param metric : the metric (COMPARISONS, VISITS or LATENCY)
+	 * @return double : the average, 0 if no operation was recorded
+	 */
+	public double getMean(int operation, int metric) {
+		long count = counts.get(operation);
+		if(count == 0) {
+			return 0;
+		}
+		return (double)sums.get(operation*METRICS+metric)/count;
+	}
+
+	/**
+	 * Method that returns a percentile of a metric for a type of operation.
+	 * The result is the smallest value of the bucket holding the percentile,
+	 * exact for values up to 63 and within a factor of 2 for larger ones
+	 * @param operation : the type of the operation
+	 * @param metric : the metric (COMPARISONS, VISITS or LATENCY)
+	 * @param percentile : the percentile, between 0 and 100
+	 * @return long : the value of the percentile, 0 if no operation was recorded
+	 */
+	public long getPercentile(int operation, int metric, double percentile) {
+		int series = (operation*METRICS+metric)*BUCKETS;
+		long total = 0;
+		for(int b=0; b<BUCKETS; b++) {
+			total += histograms.get(series+b);
+		}
+
+		long rank = (long)Math.ceil(total*percentile/100);
+		long seen = 0;
+		for(int b=0; b<BUCKETS; b++) {
+			seen += histograms.get(series+b);
+			if(seen >= rank && seen > 0) {
+				return lowerBound(b);
+			}
+		}
+		return 0;
+	}
+
+	/**
+	 * Method that clears all the recorded operations
+	 */
+	public void reset() {
+		for(int i=0; i<histograms.length(); i++) {
+			histograms.set(i, 0);
+		}
+		for(int i=0; i<sums.length(); i++) {
+			sums.set(i, 0);
+		}
+		for(int i=0; i<counts.length(); i++) {
+			counts.set(i, 0);
+		}
+	}
+
+	/**
+	 * Method that prints for each type of operation recorded the number of
+	 * operations and the average, median and 99th percentile of each metric
+	 * @param name : the name of the structure
+	 */
+	public void printSummary(String name) {
+		for(int op=0; op<OPERATIONS.length; op++) {
+			if(getCount(op) == 0) {
+				continue;
+			}
+			System.out.printf("  %-28s %-8s %10d ops | comparisons avg %6.1f p50 %4d p99 %4d | visits avg %6.1f p50 %4d p99 %4d",
+					name, OPERATIONS[op], getCount(op),
+					getMean(op, COMPARISONS), getPercentile(op, COMPARISONS, 50), getPercentile(op, COMPARISONS, 99),
+					getMean(op, VISITS), getPercentile(op, VISITS, 50), getPercentile(op, VISITS, 99));
+			if(timing) {
+				System.out.printf(" | latency avg %8.1f ns p50 %6d p99 %6d",
+						getMean(op, LATENCY), getPercentile(op, LATENCY, 50), getPercentile(op, LATENCY, 99));
+			}
+			System.out.println();
+		}
+	}
+
+}
@@ -65,6 +65,11 @@ public class LinearHashing {
 	 */
 	private int numberOfComparisons;
 	
+	/**
+	 * The recorder of the operations, OperationRecorder.NONE if they are not recorded
+	 */
+	private OperationRecorder recorder;
+	
 
 	/**
 	 * Class constructor with 2 integer arguments
@@ -91,6 +96,7 @@ public class LinearHashing {
 		this.hashKey = bckts;
 		this.maxKeys = bs*bckts;
 		this.numberOfComparisons = 0;
+		this.recorder = OperationRecorder.NONE;
 	}
 	
 	/**
@@ -155,6 +161,33 @@ public class LinearHashing {
 	public void resetComparisons() {
 		setNumberOfComparisons(0);
 	}
+	
+	public OperationRecorder getRecorder() {
+		return this.recorder;
+	}
+	
+	/**
+	 * Method that sets the recorder of the operations of the table.
+	 * For each operation the recorder gets the comparisons it performed and, 
+	 * as visits, the number of buckets in the chain of the hashed bucket
+	 * @param recorder : the recorder, OperationRecorder.NONE to stop recording
+	 */
+	public void setRecorder(OperationRecorder recorder) {
+		this.recorder = recorder;
+	}
+	
+	/**
+	 * Method that reports a finished operation to the recorder
+	 * @param operation : the type of the operation
+	 * @param bucket : the bucket the key was hashed to
+	 * @param comparisonsBefore : the comparisons counted before the operation
+	 * @param startTime : the time the operation started
+	 */
+	private void record(int operation, HashBucket bucket, int comparisonsBefore, long startTime) {
+		if(recorder.isEnabled()) {
+			recorder.record(operation, numberOfComparisons-comparisonsBefore, bucket.getChainLength(), startTime);
+		}
+	}
 
 	/**
 	 * The hash function of the table, connecting a hash position with
@@ -196,10 +229,15 @@ public class LinearHashing {
 	 * @param key : the key to be inserted in the table
 	 */
 	public void insertKey(int key) {
-		this.hashBuckets[this.hash(key)].insertKey(key, this);
+		long startTime = recorder.startTime();
+		int comparisonsBefore = this.numberOfComparisons;
+		HashBucket bucket = this.hashBuckets[this.hash(key)];
+		
+		bucket.insertKey(key, this);
 		if (this.getLoadFactor() > maxFactor){
 		  this.bucketSplit();
 		}
+		record(OperationRecorder.INSERT, bucket, comparisonsBefore, startTime);
 	}
 		
 	/**
@@ -210,7 +248,13 @@ public class LinearHashing {
 	 * @return boolean :  true/false if the key was found or not
 	 */
 	public boolean searchKey(int key) {
-		return this.hashBuckets[this.hash(key)].searchKey(key, this);
+		long startTime = recorder.startTime();
+		int comparisonsBefore = this.numberOfComparisons;
+		HashBucket bucket = this.hashBuckets[this.hash(key)];
+		
+		boolean found = bucket.searchKey(key, this);
+		record(OperationRecorder.SEARCH, bucket, comparisonsBefore, startTime);
+		return found;
 	}
 	
 	/**
@@ -224,7 +268,11 @@ public class LinearHashing {
 	 * @param key : The key to be deleted
 	 */
 	public void deleteKey(int key) {
-		this.hashBuckets[this.hash(key)].deleteKey(key, this);
+		long startTime = recorder.startTime();
+		int comparisonsBefore = this.numberOfComparisons;
+		HashBucket bucket = this.hashBuckets[this.hash(key)];
+		
+		bucket.deleteKey(key, this);
 		
 		if (this.getLoadFactor() > maxFactor){
 		  this.bucketSplit();
@@ -232,6 +280,7 @@ public class LinearHashing {
 		else if ((this.getLoadFactor() < minFactor) && (this.totalNumberOfBuckets > this.minBuckets)){
 			 this.bucketMerge();
 		}
+		record(OperationRecorder.DELETE, bucket, comparisonsBefore, startTime);
 	}
 	
 	/**
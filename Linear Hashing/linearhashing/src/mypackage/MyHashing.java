@@ -2,10 +2,7 @@ package mypackage;
 
 import java.io.File;
 import java.io.FileNotFoundException;
-import java.util.ArrayList;
-import java.util.List;
 import java.util.Random;
-import java.util.Vector;
 
 public class MyHashing {
 	
@@ -15,9 +12,9 @@ public class MyHashing {
 	private FileAccess faccess;
 	
 	/**
-	 * A Vector to store the numbers read from the file
+	 * An array to store the numbers read from the file
 	 */
-	private Vector<Integer> nbrs;
+	private int[] nbrs;
 	
 	/**
 	 * A Linear Hashing instance with 80% max load factor
@@ -50,6 +47,21 @@ public class MyHashing {
 		constructHashTable();
 	}
 	
+	/**
+	 * Constructor for the streaming test, the numbers of the file 
+	 * are not read in memory but streamed in the structures
+	 * @param path : the path to the file
+	 * @param stream : true to only open the file, false to also read it
+	 */
+	public MyHashing(String path, boolean stream) {
+		if(stream) {
+			faccess = new FileAccess(path);
+		}else {
+			initializeFile(path);
+		}
+		constructHashTable();
+	}
+	
 	public void initializeFile(String path) {
 		faccess = new FileAccess(path);
 		nbrs = faccess.getNumbers();
@@ -78,6 +90,12 @@ public class MyHashing {
 			System.exit(1);
 		}
 		
+		if(args.length > 1 && args[1].equalsIgnoreCase("stream")) {
+			MyHashing mh = new MyHashing(args[0], true);
+			mh.performStreamTest();
+			return;
+		}
+		
 		MyHashing mh = new MyHashing(args[0]);
 		mh.performTests();
 	}
@@ -128,8 +146,6 @@ public class MyHashing {
 		
 		for(int i=0; i<=9900; i=i+100) {
 			
-			List<Integer> subNbrs = nbrs.subList(i, i+100);
-			
 			float totalCompIns50T = 0;
 			float totalCompSearch50T = 0;
 			float totalCompDelete50T = 0;
@@ -142,7 +158,8 @@ public class MyHashing {
 			float totalCompSearchTree = 0;
 			float totalCompDeleteTree = 0;
 			
-			for(Integer e: subNbrs) {
+			for(int k=i; k<i+100; k++) {
+				int e = nbrs[k];
 				myTable50.insertKey(e);
 				myTable80.insertKey(e);
 				myTree.insertKey(e);
@@ -158,14 +175,14 @@ public class MyHashing {
 	       
 			
 			Random rand = new Random();
-			List<Integer> randNbrs = new ArrayList<Integer>();
+			int[] randNbrs = new int[51];
 			
 			for (int j=0;j<=50;j++) {
-	            int randomIndex = rand.nextInt(nbrs.size()); 
-				randNbrs.add(nbrs.get(randomIndex));
+	            int randomIndex = rand.nextInt(nbrs.length); 
+				randNbrs[j] = nbrs[randomIndex];
 			}
 			
-			for(Integer s : randNbrs) {
+			for(int s : randNbrs) {
 				myTable50.searchKey(s);
 				myTable80.searchKey(s);
 				myTree.searchKey(s);
@@ -179,7 +196,7 @@ public class MyHashing {
 			
 			totalCompSearchTree += myTree.getComparisons();
 			
-			for(Integer s : randNbrs) {
+			for(int s : randNbrs) {
 				myTable50.deleteKey(s);
 				myTable80.deleteKey(s);
 				myTree.delete(s);
@@ -200,4 +217,47 @@ public class MyHashing {
 		}		
 	}
 	
+	/**
+	 * Method that streams the whole file in chunks into the two tables and 
+	 * the tree, one structure at a time, and records the elapsed time and 
+	 * the average number of comparisons per insertion.
+	 * 
+	 * The file is never stored in memory, so it may be larger than the heap
+	 */
+	public void performStreamTest() {
+		String[] names = {"LH u>50%", "LH u>80%", "BST"};
+		long[] elapsedTime = new long[names.length];
+		long[] totalComparisons = new long[names.length];
+		long streamed = 0;
+		
+		System.out.println(" Streaming "+faccess.getLongLength()+" numbers in chunks of "+FileAccess.DEFAULT_CHUNK_SIZE+"\n");
+		
+		long startTime = System.nanoTime();
+		streamed = faccess.streamNumbers(key -> {
+			myTable50.insertKey(key);
+			totalComparisons[0]+=myTable50.getNumberOfComparisons();
+			myTable50.resetComparisons();
+		});
+		elapsedTime[0] = System.nanoTime()-startTime;
+		
+		startTime = System.nanoTime();
+		faccess.streamNumbers(key -> {
+			myTable80.insertKey(key);
+			totalComparisons[1]+=myTable80.getNumberOfComparisons();
+			myTable80.resetComparisons();
+		});
+		elapsedTime[1] = System.nanoTime()-startTime;
+		
+		startTime = System.nanoTime();
+		faccess.streamNumbers(key -> {
+			myTree.insertKey(key);
+			totalComparisons[2]+=myTree.getComparisons();
+		});
+		elapsedTime[2] = System.nanoTime()-startTime;
+		
+		for(int s=0; s<names.length; s++) {
+			System.out.printf(" %-9s | %12d ns | avg # insert %7.1f \n", names[s], elapsedTime[s], (double)totalComparisons[s]/Math.max(1, streamed));
+		}
+	}
+	
 }